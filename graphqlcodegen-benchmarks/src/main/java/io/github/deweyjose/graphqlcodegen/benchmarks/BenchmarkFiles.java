@@ -0,0 +1,39 @@
+package io.github.deweyjose.graphqlcodegen.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/** Scratch directories for benchmark fixtures. */
+final class BenchmarkFiles {
+  private BenchmarkFiles() {}
+
+  /**
+   * Creates an empty scratch directory.
+   *
+   * @param prefix the directory name prefix
+   * @return the directory
+   * @throws IOException if the directory cannot be created
+   */
+  static File createTempDir(String prefix) throws IOException {
+    return Files.createTempDirectory("graphqlcodegen-" + prefix).toFile();
+  }
+
+  /**
+   * Deletes a directory and everything in it.
+   *
+   * @param dir the directory
+   * @throws IOException if the directory cannot be walked
+   */
+  static void delete(File dir) throws IOException {
+    if (dir == null || !dir.exists()) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(dir.toPath())) {
+      paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+}
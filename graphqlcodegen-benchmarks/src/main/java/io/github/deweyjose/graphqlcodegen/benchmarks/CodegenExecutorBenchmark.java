@@ -0,0 +1,91 @@
+package io.github.deweyjose.graphqlcodegen.benchmarks;
+
+import io.github.deweyjose.graphqlcodegen.CodegenExecutor;
+import io.github.deweyjose.graphqlcodegen.SyntheticSchema;
+import io.github.deweyjose.graphqlcodegen.TestCodegenProvider;
+import io.github.deweyjose.graphqlcodegen.services.SchemaFileService;
+import io.github.deweyjose.graphqlcodegen.services.SchemaManifestService;
+import io.github.deweyjose.graphqlcodegen.services.TypeMappingService;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A whole plugin execution, as the mojo runs it: a full generation of the schema, and an {@code
+ * onlyGenerateChanged} build in which nothing changed. The Maven session-scoped remote schema cache
+ * is not involved, since the schema is local.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CodegenExecutorBenchmark {
+  @Param({"100", "1000"})
+  int types;
+
+  @Param({"1", "50"})
+  int files;
+
+  private File dir;
+  private File schemaDir;
+  private File outputDir;
+  private File manifestDir;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    dir = BenchmarkFiles.createTempDir("codegen");
+    schemaDir = new File(dir, "schema");
+    SyntheticSchema.builder().types(types).files(files).build().write(schemaDir);
+    outputDir = new File(dir, "generated");
+    manifestDir = new File(dir, "manifest");
+    // prime the manifest for the incremental build
+    upToDateBuild();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    BenchmarkFiles.delete(dir);
+  }
+
+  @Benchmark
+  public void fullBuild() {
+    execute(false);
+  }
+
+  @Benchmark
+  public void upToDateBuild() {
+    execute(true);
+  }
+
+  private void execute(boolean onlyGenerateChanged) {
+    NullLogger logger = new NullLogger();
+    SchemaFileService schemaFileService =
+        new SchemaFileService(outputDir, new SchemaManifestService(manifestDir, dir), logger);
+    CodegenExecutor executor =
+        new CodegenExecutor(schemaFileService, new TypeMappingService(logger), logger);
+
+    TestCodegenProvider request = new TestCodegenProvider();
+    request.setSchemaPaths(Set.of(schemaDir));
+    request.setOutputDir(outputDir);
+    request.setSchemaManifestOutputDir(manifestDir);
+    request.setOnlyGenerateChanged(onlyGenerateChanged);
+    executor.execute(request, Collections.emptySet(), dir);
+  }
+}
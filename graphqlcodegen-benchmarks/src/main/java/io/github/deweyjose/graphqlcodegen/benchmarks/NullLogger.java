@@ -0,0 +1,18 @@
+package io.github.deweyjose.graphqlcodegen.benchmarks;
+
+import io.github.deweyjose.graphqlcodegen.Logger;
+
+/** Discards every message, so benchmarks do not measure logging. */
+class NullLogger implements Logger {
+  @Override
+  public void info(String format, Object... args) {}
+
+  @Override
+  public void debug(String format, Object... args) {}
+
+  @Override
+  public void warn(String format, Object... args) {}
+
+  @Override
+  public void error(String format, Object... args) {}
+}
@@ -0,0 +1,72 @@
+package io.github.deweyjose.graphqlcodegen.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.deweyjose.graphqlcodegen.SyntheticSchema;
+import io.github.deweyjose.graphqlcodegen.services.RemoteSchemaService;
+import io.github.deweyjose.graphqlcodegen.services.SchemaTransformationService;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The in-memory steps applied to remote schemas: converting an introspection result to SDL, from a
+ * parsed map or while streaming the JSON, and renaming custom root operation types to {@code
+ * Query}, {@code Mutation} and {@code Subscription}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaConversionBenchmark {
+  @Param({"100", "1000", "10000"})
+  int types;
+
+  private final RemoteSchemaService remoteSchemaService = new RemoteSchemaService(new NullLogger());
+  private final SchemaTransformationService schemaTransformationService =
+      new SchemaTransformationService(new NullLogger());
+  private Map<String, Object> introspection;
+  private byte[] introspectionJson;
+  private String customRootSchema;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    introspection = SyntheticSchema.builder().types(types).build().introspection();
+    introspectionJson = new ObjectMapper().writeValueAsBytes(introspection);
+    customRootSchema =
+        SyntheticSchema.builder().types(types).queryTypeName("QueryRoot").build().sdl();
+  }
+
+  @Benchmark
+  public String convertIntrospectionToSchema() {
+    return remoteSchemaService.convertIntrospectionToSchema(introspection);
+  }
+
+  @Benchmark
+  public String convertIntrospectionStreamToSchema() throws IOException {
+    StringWriter schema = new StringWriter();
+    remoteSchemaService.convertIntrospectionToSchema(
+        new ByteArrayInputStream(introspectionJson), schema);
+    return schema.toString();
+  }
+
+  @Benchmark
+  public String transformSchema() {
+    return schemaTransformationService.transformSchema(customRootSchema);
+  }
+}
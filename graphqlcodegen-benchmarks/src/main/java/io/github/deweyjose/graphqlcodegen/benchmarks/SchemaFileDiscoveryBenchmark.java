@@ -0,0 +1,68 @@
+package io.github.deweyjose.graphqlcodegen.benchmarks;
+
+import io.github.deweyjose.graphqlcodegen.SyntheticSchema;
+import io.github.deweyjose.graphqlcodegen.services.SchemaFileService;
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Expanding a schema directory into its schema files. The files are spread over nested directories,
+ * {@link #FILES_PER_DIRECTORY} to a directory, next to the same number of files that are not schema
+ * files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaFileDiscoveryBenchmark {
+  static final int FILES_PER_DIRECTORY = 50;
+
+  @Param({"100", "1000", "10000"})
+  int files;
+
+  private File dir;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    dir = BenchmarkFiles.createTempDir("discovery");
+    File staging = new File(dir, "staging");
+    File schema = new File(dir, "schema");
+    SyntheticSchema.builder().types(files).files(files).build().write(staging);
+    File[] written = staging.listFiles();
+    for (int i = 0; i < written.length; i++) {
+      File target =
+          new File(schema, "d" + (i / FILES_PER_DIRECTORY / 10) + "/d" + (i / FILES_PER_DIRECTORY));
+      target.mkdirs();
+      written[i].renameTo(new File(target, written[i].getName()));
+      new File(target, "notes-" + i + ".txt").createNewFile();
+    }
+    staging.delete();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    BenchmarkFiles.delete(dir);
+  }
+
+  @Benchmark
+  public Set<File> findGraphQLSFiles() {
+    return SchemaFileService.findGraphQLSFiles(new File(dir, "schema"));
+  }
+}
@@ -0,0 +1,83 @@
+package io.github.deweyjose.graphqlcodegen.benchmarks;
+
+import io.github.deweyjose.graphqlcodegen.SyntheticSchema;
+import io.github.deweyjose.graphqlcodegen.services.SchemaManifestService;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Change detection for {@code onlyGenerateChanged} on a build where no schema file changed, which
+ * is the common case the manifest is there to make cheap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaManifestBenchmark {
+  @Param({"1000", "10000"})
+  int types;
+
+  @Param({"1", "100", "1000"})
+  int files;
+
+  private File dir;
+  private File manifestDir;
+  private Set<File> schemaFiles;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    dir = BenchmarkFiles.createTempDir("manifest");
+    manifestDir = new File(dir, "manifest");
+    schemaFiles =
+        new HashSet<>(
+            SyntheticSchema.builder()
+                .types(types)
+                .files(files)
+                .build()
+                .write(new File(dir, "schema")));
+    SchemaManifestService manifest = manifest();
+    manifest.getChangedFiles();
+    manifest.syncManifest();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    BenchmarkFiles.delete(dir);
+  }
+
+  @Benchmark
+  public Set<File> getChangedFiles() {
+    return manifest().getChangedFiles();
+  }
+
+  @Benchmark
+  public void getChangedFilesAndSyncManifest() {
+    SchemaManifestService manifest = manifest();
+    manifest.getChangedFiles();
+    manifest.syncManifest();
+  }
+
+  private SchemaManifestService manifest() {
+    SchemaManifestService manifest = new SchemaManifestService(manifestDir, dir);
+    manifest.setFiles(schemaFiles);
+    return manifest;
+  }
+}
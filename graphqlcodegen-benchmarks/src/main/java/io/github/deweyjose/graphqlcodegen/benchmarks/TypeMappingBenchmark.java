@@ -0,0 +1,128 @@
+package io.github.deweyjose.graphqlcodegen.benchmarks;
+
+import io.github.deweyjose.graphqlcodegen.services.TypeMappingService;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Merging the type mappings of dependency jars. Every other jar carries a type mapping properties
+ * file. With {@code cold} set, each invocation touches every jar first, so neither the on-disk
+ * index nor the in-memory cache can serve them and every jar is opened.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TypeMappingBenchmark {
+  static final String PROPERTIES_FILE = "META-INF/graphql/typeMapping.properties";
+
+  @Param({"10", "100", "500"})
+  int jars;
+
+  @Param({"10", "1000"})
+  int mappingsPerJar;
+
+  @Param({"false", "true"})
+  boolean cold;
+
+  private File dir;
+  private Set<Artifact> artifacts;
+  private TypeMappingService typeMappingService;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    dir = BenchmarkFiles.createTempDir("type-mapping");
+    artifacts = new LinkedHashSet<>();
+    for (int i = 0; i < jars; i++) {
+      File jar = new File(dir, "lib" + i + ".jar");
+      writeJar(jar, i);
+      DefaultArtifact artifact =
+          new DefaultArtifact(
+              "io.github.deweyjose.bench",
+              "lib" + i,
+              "1.0",
+              Artifact.SCOPE_COMPILE,
+              "jar",
+              null,
+              new DefaultArtifactHandler("jar"));
+      artifact.setFile(jar);
+      artifacts.add(artifact);
+    }
+    typeMappingService = new TypeMappingService(new File(dir, "index"), new NullLogger());
+  }
+
+  @Setup(Level.Invocation)
+  public void touchJars() {
+    if (cold) {
+      for (Artifact artifact : artifacts) {
+        File jar = artifact.getFile();
+        jar.setLastModified(jar.lastModified() + 1000);
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    BenchmarkFiles.delete(dir);
+  }
+
+  @Benchmark
+  public Map<String, String> mergeTypeMapping() {
+    return typeMappingService.mergeTypeMapping(
+        Collections.emptyMap(), List.of(PROPERTIES_FILE), Collections.emptyList(), artifacts, dir);
+  }
+
+  private void writeJar(File jar, int index) throws IOException {
+    try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+      out.putNextEntry(new JarEntry("com/example/lib" + index + "/Placeholder.class"));
+      out.write(new byte[1024]);
+      out.closeEntry();
+      if (index % 2 == 0) {
+        StringBuilder properties = new StringBuilder();
+        for (int m = 0; m < mappingsPerJar; m++) {
+          properties
+              .append("Type")
+              .append(index)
+              .append('_')
+              .append(m)
+              .append("=com.example.lib")
+              .append(index)
+              .append(".Type")
+              .append(m)
+              .append('\n');
+        }
+        out.putNextEntry(new JarEntry(PROPERTIES_FILE));
+        out.write(properties.toString().getBytes(StandardCharsets.ISO_8859_1));
+        out.closeEntry();
+      }
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package io.github.deweyjose.graphqlcodegen;
+
+import com.netflix.graphql.dgs.codegen.CodeGen;
+import com.netflix.graphql.dgs.codegen.CodeGenConfig;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import lombok.SneakyThrows;
+
+/**
+ * Computes a stable fingerprint of an effective {@link CodeGenConfig} for the schema manifest.
+ *
+ * <p>Every public getter of {@link CodeGenConfig} contributes, so options added upstream are picked
+ * up without changes here. Collections and maps are sorted so the fingerprint does not depend on
+ * iteration order. The schema inputs themselves ({@code schemaFiles} and {@code schemas}) are
+ * excluded because the manifest tracks them per file. The plugin and graphql-dgs-codegen-core
+ * versions are included, so upgrading either one forces regeneration.
+ */
+public final class CodeGenConfigFingerprint {
+  private static final Set<String> EXCLUDED_PROPERTIES = Set.of("getSchemaFiles", "getSchemas");
+
+  private CodeGenConfigFingerprint() {}
+
+  /**
+   * Computes the fingerprint of the given config.
+   *
+   * @param config the effective codegen config
+   * @return the fingerprint as a SHA-256 hex string
+   */
+  @SneakyThrows
+  public static String of(CodeGenConfig config) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("plugin=").append(versionOf(CodeGenConfigFingerprint.class)).append('\n');
+    sb.append("codegen=").append(versionOf(CodeGen.class)).append('\n');
+    for (Method getter : getters()) {
+      sb.append(getter.getName()).append('=').append(normalize(getter.invoke(config))).append('\n');
+    }
+    byte[] hash =
+        MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+    return HexFormat.of().formatHex(hash);
+  }
+
+  /**
+   * Returns the version of the artifact that contains the given class: the jar manifest's
+   * Implementation-Version when present, otherwise the location the class was loaded from (which
+   * contains the version for artifacts resolved from a Maven repository).
+   *
+   * @param type a class from the artifact
+   * @return the artifact version, or a best-effort substitute
+   */
+  static String versionOf(Class<?> type) {
+    String version = type.getPackage().getImplementationVersion();
+    if (version != null) {
+      return version;
+    }
+    CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+    return codeSource == null ? "unknown" : String.valueOf(codeSource.getLocation());
+  }
+
+  private static Iterable<Method> getters() {
+    return Arrays.stream(CodeGenConfig.class.getMethods())
+        .filter(m -> m.getDeclaringClass() == CodeGenConfig.class)
+        .filter(m -> !Modifier.isStatic(m.getModifiers()) && m.getParameterCount() == 0)
+        .filter(m -> m.getName().startsWith("get") || m.getName().startsWith("is"))
+        .filter(m -> !EXCLUDED_PROPERTIES.contains(m.getName()))
+        .sorted(Comparator.comparing(Method::getName))
+        .toList();
+  }
+
+  private static String normalize(Object value) {
+    if (value instanceof Map<?, ?> map) {
+      Map<String, String> sorted = new TreeMap<>();
+      map.forEach((k, v) -> sorted.put(String.valueOf(k), normalize(v)));
+      return sorted.toString();
+    }
+    if (value instanceof Collection<?> collection) {
+      return collection.stream()
+          .map(CodeGenConfigFingerprint::normalize)
+          .sorted()
+          .collect(Collectors.joining(", ", "[", "]"));
+    }
+    return String.valueOf(value);
+  }
+}
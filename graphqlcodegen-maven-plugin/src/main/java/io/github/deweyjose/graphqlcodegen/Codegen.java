@@ -11,6 +11,7 @@ import java.util.Map;
 import java.util.Set;
 import lombok.Getter;
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -30,11 +31,20 @@ public class Codegen extends AbstractMojo implements CodegenConfigProvider {
   @Parameter(defaultValue = "${project}")
   private MavenProject project;
 
+  @Parameter(defaultValue = "${session}", readonly = true)
+  private MavenSession session;
+
   @Parameter(
       property = "schemaPaths",
       defaultValue = "${project.basedir}/src/main/resources/schema")
   private Set<File> schemaPaths;
 
+  @Parameter(property = "schemaIncludes")
+  private List<String> schemaIncludes;
+
+  @Parameter(property = "schemaExcludes")
+  private List<String> schemaExcludes;
+
   @Parameter(property = "schemaUrls")
   private List<String> schemaUrls;
 
@@ -46,6 +56,9 @@ public class Codegen extends AbstractMojo implements CodegenConfigProvider {
       defaultValue = "${project.build.directory}/graphqlcodegen")
   private File schemaManifestOutputDir;
 
+  @Parameter(property = "schemaManifestHashAlgorithm", defaultValue = "SHA-256")
+  private String schemaManifestHashAlgorithm;
+
   @Parameter(property = "onlyGenerateChanged", defaultValue = "true")
   private boolean onlyGenerateChanged;
 
@@ -69,6 +82,12 @@ public class Codegen extends AbstractMojo implements CodegenConfigProvider {
   @Parameter(property = "writeToFiles", defaultValue = "true")
   private boolean writeToFiles;
 
+  @Parameter(property = "onlyWriteChanged", defaultValue = "true")
+  private boolean onlyWriteChanged;
+
+  @Parameter(property = "parallelCodegen", defaultValue = "false")
+  private boolean parallelCodegen;
+
   @Parameter(property = "packageName", defaultValue = "")
   private String packageName;
 
@@ -198,6 +217,22 @@ public class Codegen extends AbstractMojo implements CodegenConfigProvider {
   @Parameter(property = "introspectionRequests")
   private List<IntrospectionRequest> introspectionRequests;
 
+  @Parameter(property = "schemaLockFile")
+  private File schemaLockFile;
+
+  @Parameter(
+      property = "schemaCacheDir",
+      defaultValue = "${settings.localRepository}/.cache/graphqlcodegen")
+  private File schemaCacheDir;
+
+  @Parameter(property = "refreshSchemaLock", defaultValue = "false")
+  private boolean refreshSchemaLock;
+
+  @Override
+  public String getProjectId() {
+    return project == null ? null : project.getGroupId() + ":" + project.getArtifactId();
+  }
+
   @Override
   public void execute() {
     Logger logger = new MavenLogger(getLog());
@@ -207,18 +242,45 @@ public class Codegen extends AbstractMojo implements CodegenConfigProvider {
       return;
     }
 
-    SchemaManifestService manifest =
-        new SchemaManifestService(schemaManifestOutputDir, project.getBasedir());
-    TypeMappingService typeMappingService = new TypeMappingService();
-    SchemaFileService schemaFileService = new SchemaFileService(outputDir, manifest, logger);
-
     Set<Artifact> artifacts = project.getArtifacts();
 
-    var executor = new CodegenExecutor(schemaFileService, typeMappingService, logger);
+    var executor = newExecutor(logger);
     executor.execute(this, artifacts, project.getBasedir());
 
     if (autoAddSource) {
       project.addCompileSourceRoot(outputDir.getAbsolutePath());
     }
   }
+
+  /**
+   * Creates an executor whose services are set up from the plugin configuration and the Maven
+   * session.
+   *
+   * @param logger the logger
+   * @return the executor
+   */
+  CodegenExecutor newExecutor(Logger logger) {
+    SchemaManifestService manifest =
+        new SchemaManifestService(
+            schemaManifestOutputDir, project.getBasedir(), schemaManifestHashAlgorithm);
+    TypeMappingService typeMappingService = new TypeMappingService(schemaManifestOutputDir, logger);
+    SchemaFileService schemaFileService = new SchemaFileService(outputDir, manifest, logger);
+    if (session != null && session.getRequest().getStartTime() != null) {
+      // modules of the same build share remote schemas
+      schemaFileService.setRemoteCacheScope(
+          session.getExecutionRootDirectory()
+              + "@"
+              + session.getRequest().getStartTime().getTime());
+    }
+    if (schemaLockFile != null) {
+      schemaFileService.useSchemaLock(schemaLockFile, schemaCacheDir);
+      boolean offline = session != null && session.isOffline();
+      schemaFileService.setOffline(offline);
+      // -U refreshes locked remote schemas like it refreshes snapshots
+      schemaFileService.setRefreshRemoteSchemas(
+          refreshSchemaLock
+              || (!offline && session != null && session.getRequest().isUpdateSnapshots()));
+    }
+    return new CodegenExecutor(schemaFileService, typeMappingService, logger);
+  }
 }
@@ -9,11 +9,26 @@ import java.util.Set;
 
 /** Interface for providing configuration to the GraphQL codegen plugin. */
 public interface CodegenConfigProvider {
+  /**
+   * @return the {@code groupId:artifactId} of the project, or null outside a Maven build
+   */
+  String getProjectId();
+
   /**
    * @return schema file paths
    */
   Set<File> getSchemaPaths();
 
+  /**
+   * @return glob patterns schema files found in schema directories must match
+   */
+  List<String> getSchemaIncludes();
+
+  /**
+   * @return glob patterns of files and directories to skip in schema directories
+   */
+  List<String> getSchemaExcludes();
+
   /**
    * @return schema jar files from dependencies
    */
@@ -24,6 +39,11 @@ public interface CodegenConfigProvider {
    */
   File getSchemaManifestOutputDir();
 
+  /**
+   * @return digest algorithm used to checksum schema files in the manifest
+   */
+  String getSchemaManifestHashAlgorithm();
+
   /**
    * @return whether to only generate changed files
    */
@@ -59,6 +79,16 @@ public interface CodegenConfigProvider {
    */
   boolean isWriteToFiles();
 
+  /**
+   * @return whether to leave generated files whose content has not changed untouched
+   */
+  boolean isOnlyWriteChanged();
+
+  /**
+   * @return whether to split code generation into shards that run concurrently
+   */
+  boolean isParallelCodegen();
+
   /**
    * @return package name
    */
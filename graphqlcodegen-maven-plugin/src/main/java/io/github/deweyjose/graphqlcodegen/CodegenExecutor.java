@@ -2,20 +2,24 @@ package io.github.deweyjose.graphqlcodegen;
 
 import com.netflix.graphql.dgs.codegen.CodeGen;
 import com.netflix.graphql.dgs.codegen.CodeGenConfig;
+import com.netflix.graphql.dgs.codegen.CodeGenResult;
 import com.netflix.graphql.dgs.codegen.JacksonVersion;
 import com.netflix.graphql.dgs.codegen.Language;
 import io.github.deweyjose.graphqlcodegen.parameters.ParameterMap;
+import io.github.deweyjose.graphqlcodegen.services.GeneratedSourceService;
 import io.github.deweyjose.graphqlcodegen.services.SchemaFileService;
+import io.github.deweyjose.graphqlcodegen.services.SchemaManifestService;
 import io.github.deweyjose.graphqlcodegen.services.TypeMappingService;
 import java.io.File;
 import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
-import lombok.SneakyThrows;
 import org.apache.maven.artifact.Artifact;
 
 /**
@@ -25,6 +29,7 @@ import org.apache.maven.artifact.Artifact;
 public class CodegenExecutor {
   private final SchemaFileService schemaFileService;
   private final TypeMappingService typeMappingService;
+  private final GeneratedSourceService generatedSourceService;
   private final Logger logger;
 
   /**
@@ -37,103 +42,119 @@ public class CodegenExecutor {
       SchemaFileService schemaFileService, TypeMappingService typeMappingService, Logger logger) {
     this.schemaFileService = schemaFileService;
     this.typeMappingService = typeMappingService;
+    this.generatedSourceService = new GeneratedSourceService(logger);
     this.logger = logger;
   }
 
   /**
-   * Executes the code generation.
+   * Executes the code generation. The wall time, CPU time and allocations of each phase are logged
+   * as a one-line summary and written to {@value CodegenPhaseReport#REPORT_FILE} in the schema
+   * manifest output directory.
    *
    * @param request the execution request
    * @param artifacts the artifacts
    * @param projectBaseDir the project base directory
    */
-  @SneakyThrows
   public void execute(CodegenConfigProvider request, Set<Artifact> artifacts, File projectBaseDir) {
-    // get the schema paths that might have changed or all of them.
-    if (request.isOnlyGenerateChanged()) {
-      schemaFileService.loadExpandedSchemaPaths(request.getSchemaPaths());
-      logger.info("expanded schema paths: {}", schemaFileService.getSchemaPaths());
-    } else {
-      schemaFileService.setSchemaPaths(request.getSchemaPaths());
+    CodegenPhaseReport report = new CodegenPhaseReport(request.getProjectId());
+    try {
+      execute(request, artifacts, projectBaseDir, report);
+    } finally {
+      logger.info(report.summary());
+      if (request.getSchemaManifestOutputDir() != null) {
+        File reportFile =
+            new File(request.getSchemaManifestOutputDir(), CodegenPhaseReport.REPORT_FILE);
+        try {
+          report.write(reportFile);
+        } catch (Exception e) {
+          // the report is diagnostic, it must not fail the build or hide a codegen failure
+          logger.warn("failed to write {}: {}", reportFile, e.getMessage());
+        }
+      }
     }
+  }
 
-    // load the schema jar files from dependencies
-    schemaFileService.loadSchemaJarFilesFromDependencies(
-        artifacts, request.getSchemaJarFilesFromDependencies());
+  private void execute(
+      CodegenConfigProvider request,
+      Set<Artifact> artifacts,
+      File projectBaseDir,
+      CodegenPhaseReport report) {
+    report.measureParallel(
+        "discovery",
+        () -> {
+          // get the schema paths that might have changed or all of them.
+          List<String> includes =
+              Optional.ofNullable(request.getSchemaIncludes()).orElse(Collections.emptyList());
+          List<String> excludes =
+              Optional.ofNullable(request.getSchemaExcludes()).orElse(Collections.emptyList());
+          if (request.isOnlyGenerateChanged() || !includes.isEmpty() || !excludes.isEmpty()) {
+            schemaFileService.loadExpandedSchemaPaths(request.getSchemaPaths(), includes, excludes);
+            logger.info("expanded schema paths: {}", schemaFileService.getSchemaPaths());
+          } else {
+            schemaFileService.setSchemaPaths(request.getSchemaPaths());
+          }
+
+          // load the schema jar files from dependencies
+          schemaFileService.loadSchemaJarFilesFromDependencies(
+              artifacts, request.getSchemaJarFilesFromDependencies());
+        });
+
+    // downloads schemas and introspects endpoints, converting introspection results to SDL
+    report.measureParallel(
+        "remoteSchemas",
+        () ->
+            schemaFileService.loadRemoteSchemas(
+                request.getSchemaUrls(), request.getIntrospectionRequests()));
 
-    schemaFileService.loadSchemaUrls(request.getSchemaUrls());
-    schemaFileService.loadIntrospectedSchemas(request.getIntrospectionRequests());
     schemaFileService.checkHasSchemaFiles();
 
+    // type mappings are part of the effective configuration, so they are merged before change
+    // detection to let a mapping change force regeneration.
+    Map<String, String> typeMapping =
+        report.measureParallel(
+            "typeMapping",
+            () ->
+                typeMappingService.mergeTypeMapping(
+                    request.getTypeMapping(),
+                    request.getTypeMappingPropertiesFiles(),
+                    request.getLocalTypeMappingPropertiesFiles(),
+                    artifacts,
+                    projectBaseDir));
+
+    final CodeGenConfigBuilder configBuilder =
+        newConfigBuilder(
+            request, schemaFileService.getSchemaJarFilesFromDependencies(), typeMapping);
+
     if (request.isOnlyGenerateChanged()) {
-      schemaFileService.filterChangedSchemaFiles();
+      report.measureParallel(
+          "changeDetection",
+          () -> {
+            schemaFileService
+                .getManifest()
+                .setConfigFingerprint(
+                    CodeGenConfigFingerprint.of(
+                        configBuilder.setSchemaFiles(Collections.emptySet()).build()));
+            schemaFileService.filterChangedSchemaFiles();
+          });
       logger.info("changed schema files: {}", schemaFileService.getSchemaPaths());
     }
 
     if (schemaFileService.noWorkToDo()) {
       logger.info("no files to generate");
+      if (request.isOnlyGenerateChanged()) {
+        // record edits that did not change any type, so the files are not rehashed next time
+        report.measureParallel("manifestSync", schemaFileService::syncManifest);
+      }
+      report.setOutcome("up-to-date");
       return;
     }
 
-    Map<String, String> typeMapping =
-        typeMappingService.mergeTypeMapping(
-            request.getTypeMapping(),
-            request.getTypeMappingPropertiesFiles(),
-            request.getLocalTypeMappingPropertiesFiles(),
-            artifacts,
-            projectBaseDir);
-
+    // every schema file stays in context so types in changed files resolve against the whole
+    // schema; only the classes of unchanged types are left out when writing.
     final CodeGenConfig config =
-        new CodeGenConfigBuilder()
-            .setSchemas(Collections.emptySet())
-            .setSchemaFiles(schemaFileService.getSchemaPaths())
-            .setSchemaJarFilesFromDependencies(
-                schemaFileService.getSchemaJarFilesFromDependencies())
-            .setOutputDir(request.getOutputDir().toPath())
-            .setExamplesOutputDir(request.getExamplesOutputDir().toPath())
-            .setWriteToFiles(request.isWriteToFiles())
-            .setPackageName(request.getPackageName())
-            .setSubPackageNameClient(request.getSubPackageNameClient())
-            .setSubPackageNameDatafetchers(request.getSubPackageNameDatafetchers())
-            .setSubPackageNameTypes(request.getSubPackageNameTypes())
-            .setSubPackageNameDocs(request.getSubPackageNameDocs())
-            .setLanguage(Language.valueOf(request.getLanguage().toUpperCase()))
-            .setGenerateBoxedTypes(request.isGenerateBoxedTypes())
-            .setGenerateIsGetterForPrimitiveBooleanFields(
-                request.isGenerateIsGetterForPrimitiveBooleanFields())
-            .setGenerateClientApi(request.isGenerateClientApi())
-            .setGenerateClientApiv2(request.isGenerateClientApiv2())
-            .setGenerateInterfaces(request.isGenerateInterfaces())
-            .setGenerateKotlinNullableClasses(request.isGenerateKotlinNullableClasses())
-            .setGenerateKotlinClosureProjections(request.isGenerateKotlinClosureProjections())
-            .setTypeMapping(typeMapping)
-            .setIncludeQueries(request.getIncludeQueries())
-            .setIncludeMutations(request.getIncludeMutations())
-            .setIncludeSubscriptions(request.getIncludeSubscriptions())
-            .setSkipEntityQueries(request.isSkipEntityQueries())
-            .setShortProjectionNames(request.isShortProjectionNames())
-            .setGenerateDataTypes(request.isGenerateDataTypes())
-            .setKotlinAllFieldsOptional(request.isKotlinAllFieldsOptional())
-            .setSnakeCaseConstantNames(request.isSnakeCaseConstantNames())
-            .setGenerateInterfaceSetters(request.isGenerateInterfaceSetters())
-            .setGenerateInterfaceMethodsForInterfaceFields(
-                request.isGenerateInterfaceMethodsForInterfaceFields())
-            .setGenerateDocs(request.getGenerateDocs())
-            .setGeneratedDocsFolder(Paths.get(request.getGeneratedDocsFolder()))
-            .setIncludeImports(
-                Optional.ofNullable(request.getIncludeImports()).orElse(Collections.emptyMap()))
-            .setIncludeEnumImports(toMap(request.getIncludeEnumImports()))
-            .setIncludeClassImports(toMap(request.getIncludeClassImports()))
-            .setGenerateCustomAnnotations(request.isGenerateCustomAnnotations())
-            .setJavaGenerateAllConstructor(request.isJavaGenerateAllConstructor())
-            .setImplementSerializable(request.isImplementSerializable())
-            .setAddGeneratedAnnotation(request.isAddGeneratedAnnotation())
-            .setDisableDatesInGeneratedAnnotation(request.isDisableDatesInGeneratedAnnotation())
-            .setGeneratedAnnotationType(request.getGeneratedAnnotationType())
-            .setAddDeprecatedAnnotation(request.isAddDeprecatedAnnotation())
-            .setTrackInputFieldSet(request.isTrackInputFieldSet())
-            .setGenerateJSpecifyAnnotations(request.isGenerateJSpecifyAnnotations())
-            .setJacksonVersions(toJacksonVersions(request.getJacksonVersions()))
+        configBuilder
+            .setSchemaFiles(schemaFileService.getContextSchemaPaths())
+            .setWriteToFiles(false)
             .build();
 
     if (request.isOmitNullInputFields()) {
@@ -142,12 +163,140 @@ public class CodegenExecutor {
     }
 
     logger.info("Codegen config: \n{}", config);
-    final CodeGen codeGen = new CodeGen(config);
-    codeGen.generate();
+    CodeGenResult result =
+        report.measure(
+            "codegen",
+            request.isParallelCodegen(),
+            () ->
+                request.isParallelCodegen()
+                    ? new ShardedCodeGen(logger, Runtime.getRuntime().availableProcessors())
+                        .generate(configBuilder, config)
+                    : new CodeGen(config).generate());
+    if (request.isWriteToFiles()) {
+      report.measure(
+          "write",
+          () -> {
+            Map<File, String> outputs =
+                generatedSourceService.write(
+                    config,
+                    result,
+                    schemaFileService.getUnchangedTypes(),
+                    request.isOnlyWriteChanged());
+
+            if (request.isOnlyGenerateChanged()) {
+              // files generated by the previous build but not by this one belong to removed types
+              // or to a previous configuration
+              SchemaManifestService manifest = schemaFileService.getManifest();
+              Set<File> stale = new TreeSet<>(manifest.getRecordedOutputs().keySet());
+              outputs
+                  .keySet()
+                  .forEach(
+                      file -> stale.remove(file.toPath().toAbsolutePath().normalize().toFile()));
+              generatedSourceService.delete(stale);
+              manifest.setOutputs(outputs);
+            }
+          });
+    }
 
     if (request.isOnlyGenerateChanged()) {
-      schemaFileService.syncManifest();
+      report.measureParallel("manifestSync", schemaFileService::syncManifest);
     }
+    report.setOutcome("generated");
+  }
+
+  /**
+   * Resolves every remote input of the code generation without generating code: downloads the
+   * schema URLs, runs the introspection requests, and reads the type mappings of the dependency
+   * jars. This fills the schema lock cache and the type mapping index, so later builds need neither
+   * the network nor a jar scan.
+   *
+   * @param request the execution request
+   * @param artifacts the artifacts
+   * @param projectBaseDir the project base directory
+   */
+  public void prefetch(
+      CodegenConfigProvider request, Set<Artifact> artifacts, File projectBaseDir) {
+    schemaFileService.loadSchemaJarFilesFromDependencies(
+        artifacts,
+        Optional.ofNullable(request.getSchemaJarFilesFromDependencies())
+            .orElse(Collections.emptySet()));
+    schemaFileService.loadRemoteSchemas(
+        Optional.ofNullable(request.getSchemaUrls()).orElse(Collections.emptyList()),
+        Optional.ofNullable(request.getIntrospectionRequests()).orElse(Collections.emptyList()));
+    Map<String, String> typeMapping =
+        typeMappingService.mergeTypeMapping(
+            request.getTypeMapping(),
+            request.getTypeMappingPropertiesFiles(),
+            request.getLocalTypeMappingPropertiesFiles(),
+            artifacts,
+            projectBaseDir);
+    logger.info(
+        "prefetched {} remote schemas, {} schema jars and {} type mappings",
+        schemaFileService.getSchemaPaths().size(),
+        schemaFileService.getSchemaJarFilesFromDependencies().size(),
+        typeMapping.size());
+  }
+
+  /**
+   * Creates a config builder populated from the request and the merged type mapping. Schema files
+   * are left unset so the caller can fingerprint the configuration before choosing which files to
+   * generate.
+   *
+   * @param request the execution request
+   * @param schemaJarFiles the schema jar files resolved from dependencies
+   * @param typeMapping the merged type mapping
+   * @return the populated config builder
+   */
+  static CodeGenConfigBuilder newConfigBuilder(
+      CodegenConfigProvider request, List<File> schemaJarFiles, Map<String, String> typeMapping) {
+    return new CodeGenConfigBuilder()
+        .setSchemas(Collections.emptySet())
+        .setSchemaJarFilesFromDependencies(schemaJarFiles)
+        .setOutputDir(request.getOutputDir().toPath())
+        .setExamplesOutputDir(request.getExamplesOutputDir().toPath())
+        .setWriteToFiles(request.isWriteToFiles())
+        .setPackageName(request.getPackageName())
+        .setSubPackageNameClient(request.getSubPackageNameClient())
+        .setSubPackageNameDatafetchers(request.getSubPackageNameDatafetchers())
+        .setSubPackageNameTypes(request.getSubPackageNameTypes())
+        .setSubPackageNameDocs(request.getSubPackageNameDocs())
+        .setLanguage(Language.valueOf(request.getLanguage().toUpperCase()))
+        .setGenerateBoxedTypes(request.isGenerateBoxedTypes())
+        .setGenerateIsGetterForPrimitiveBooleanFields(
+            request.isGenerateIsGetterForPrimitiveBooleanFields())
+        .setGenerateClientApi(request.isGenerateClientApi())
+        .setGenerateClientApiv2(request.isGenerateClientApiv2())
+        .setGenerateInterfaces(request.isGenerateInterfaces())
+        .setGenerateKotlinNullableClasses(request.isGenerateKotlinNullableClasses())
+        .setGenerateKotlinClosureProjections(request.isGenerateKotlinClosureProjections())
+        .setTypeMapping(typeMapping)
+        .setIncludeQueries(request.getIncludeQueries())
+        .setIncludeMutations(request.getIncludeMutations())
+        .setIncludeSubscriptions(request.getIncludeSubscriptions())
+        .setSkipEntityQueries(request.isSkipEntityQueries())
+        .setShortProjectionNames(request.isShortProjectionNames())
+        .setGenerateDataTypes(request.isGenerateDataTypes())
+        .setKotlinAllFieldsOptional(request.isKotlinAllFieldsOptional())
+        .setSnakeCaseConstantNames(request.isSnakeCaseConstantNames())
+        .setGenerateInterfaceSetters(request.isGenerateInterfaceSetters())
+        .setGenerateInterfaceMethodsForInterfaceFields(
+            request.isGenerateInterfaceMethodsForInterfaceFields())
+        .setGenerateDocs(request.getGenerateDocs())
+        .setGeneratedDocsFolder(Paths.get(request.getGeneratedDocsFolder()))
+        .setIncludeImports(
+            Optional.ofNullable(request.getIncludeImports()).orElse(Collections.emptyMap()))
+        .setIncludeEnumImports(toMap(request.getIncludeEnumImports()))
+        .setIncludeClassImports(toMap(request.getIncludeClassImports()))
+        .setGenerateCustomAnnotations(request.isGenerateCustomAnnotations())
+        .setJavaGenerateAllConstructor(request.isJavaGenerateAllConstructor())
+        .setImplementSerializable(request.isImplementSerializable())
+        .setAddGeneratedAnnotation(request.isAddGeneratedAnnotation())
+        .setDisableDatesInGeneratedAnnotation(request.isDisableDatesInGeneratedAnnotation())
+        .setGeneratedAnnotationType(request.getGeneratedAnnotationType())
+        .setAddDeprecatedAnnotation(request.isAddDeprecatedAnnotation())
+        .setTrackInputFieldSet(request.isTrackInputFieldSet())
+        .setGenerateJSpecifyAnnotations(request.isGenerateJSpecifyAnnotations())
+        .setJacksonVersions(toJacksonVersions(request.getJacksonVersions()));
   }
 
   /**
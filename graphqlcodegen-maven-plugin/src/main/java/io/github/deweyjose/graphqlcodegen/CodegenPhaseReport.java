@@ -0,0 +1,352 @@
+package io.github.deweyjose.graphqlcodegen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import lombok.SneakyThrows;
+
+/**
+ * Records the wall time, CPU time and allocated bytes of each phase of a code generation run, and
+ * writes them as a JSON report identified by the project's {@code groupId:artifactId}, so the
+ * reports of a reactor build can be aggregated.
+ *
+ * <p>A phase that runs on the calling thread is measured through {@link ThreadMXBean} on that
+ * thread. A phase that hands work to other threads (parallel parsing and hashing, concurrent
+ * downloads and jar scans, sharded code generation) is measured with {@link
+ * #measureParallel(String, PhaseBody)} across the whole process instead: its CPU time is the
+ * process CPU time, and its allocations are summed over every live thread, plus the tasks the
+ * plugin's own thread pools run through {@link #worker(Callable)}, whose threads are gone by the
+ * end of the phase. Process-wide values include whatever else the JVM runs at the same time, such
+ * as other modules of a parallel {@code -T} build or garbage collection. Either value is reported
+ * as -1 when the JVM does not support measuring it.
+ */
+public class CodegenPhaseReport {
+  /** The name of the report file written to the schema manifest output directory. */
+  public static final String REPORT_FILE = "codegen-report.json";
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+  private static final OperatingSystemMXBean OPERATING_SYSTEM =
+      ManagementFactory.getOperatingSystemMXBean();
+
+  /** The threads that have run a {@link #worker(Callable)} task, pruned once they terminate. */
+  private static final Set<Long> WORKER_THREADS = ConcurrentHashMap.newKeySet();
+
+  /** The bytes allocated by every {@link #worker(Callable)} task so far. */
+  private static final LongAdder WORKER_ALLOCATED_BYTES = new LongAdder();
+
+  private final String project;
+  private final List<Phase> phases = new ArrayList<>();
+  private final Instant startedAt = Instant.now();
+  private final long startNanos = System.nanoTime();
+  private String outcome = "failed";
+
+  /**
+   * The measurements of a single phase.
+   *
+   * @param name the phase name
+   * @param wallNanos the elapsed wall time
+   * @param cpuNanos the CPU time of the calling thread, or of the process for a parallel phase; -1
+   *     if unsupported
+   * @param allocatedBytes the bytes allocated by the calling thread, or by the process for a
+   *     parallel phase; -1 if unsupported
+   * @param parallel true if the phase runs work on other threads
+   */
+  public record Phase(
+      String name, long wallNanos, long cpuNanos, long allocatedBytes, boolean parallel) {}
+
+  /**
+   * Constructs a new CodegenPhaseReport.
+   *
+   * @param project the {@code groupId:artifactId} of the project, or null outside a Maven build
+   */
+  public CodegenPhaseReport(String project) {
+    this.project = project;
+  }
+
+  /**
+   * Runs a phase of the code generation.
+   *
+   * @param <T> the type of the phase result
+   */
+  @FunctionalInterface
+  public interface PhaseBody<T> {
+    /**
+     * Runs the phase.
+     *
+     * @return the phase result
+     * @throws Exception if the phase fails
+     */
+    T run() throws Exception;
+  }
+
+  /**
+   * Runs and measures a phase that runs on the calling thread. A failed phase is still recorded.
+   *
+   * @param name the phase name
+   * @param body the phase
+   * @param <T> the type of the phase result
+   * @return the phase result
+   */
+  public <T> T measure(String name, PhaseBody<T> body) {
+    return measure(name, false, body);
+  }
+
+  /**
+   * Runs and measures a phase without a result that runs on the calling thread.
+   *
+   * @param name the phase name
+   * @param body the phase
+   */
+  public void measure(String name, Runnable body) {
+    measure(name, false, body);
+  }
+
+  /**
+   * Runs and measures a phase that runs work on other threads, across the whole process.
+   *
+   * @param name the phase name
+   * @param body the phase
+   * @param <T> the type of the phase result
+   * @return the phase result
+   */
+  public <T> T measureParallel(String name, PhaseBody<T> body) {
+    return measure(name, true, body);
+  }
+
+  /**
+   * Runs and measures a phase without a result that runs work on other threads, across the whole
+   * process.
+   *
+   * @param name the phase name
+   * @param body the phase
+   */
+  public void measureParallel(String name, Runnable body) {
+    measure(name, true, body);
+  }
+
+  /**
+   * Runs and measures a phase. A failed phase is still recorded.
+   *
+   * @param name the phase name
+   * @param parallel true if the phase runs work on other threads
+   * @param body the phase
+   * @param <T> the type of the phase result
+   * @return the phase result
+   */
+  @SneakyThrows
+  public <T> T measure(String name, boolean parallel, PhaseBody<T> body) {
+    long cpu = parallel ? processCpuTime() : cpuTime();
+    Allocations allocations = parallel ? processAllocations() : null;
+    long allocated = parallel ? 0 : allocatedBytes();
+    long wall = System.nanoTime();
+    try {
+      return body.run();
+    } finally {
+      long wallNanos = System.nanoTime() - wall;
+      long cpuNanos = cpu < 0 ? -1 : (parallel ? processCpuTime() : cpuTime()) - cpu;
+      long allocatedBytes;
+      if (parallel) {
+        allocatedBytes = allocations == null ? -1 : processAllocations().since(allocations);
+      } else {
+        allocatedBytes = allocated < 0 ? -1 : allocatedBytes() - allocated;
+      }
+      phases.add(new Phase(name, wallNanos, cpuNanos, allocatedBytes, parallel));
+    }
+  }
+
+  /**
+   * Wraps a task submitted to one of the plugin's thread pools, so that a parallel phase counts its
+   * allocations even though the pool's threads terminate before the phase ends.
+   *
+   * @param task the task
+   * @param <T> the type of the task result
+   * @return the wrapped task
+   */
+  public static <T> Callable<T> worker(Callable<T> task) {
+    return () -> {
+      long thread = Thread.currentThread().getId();
+      WORKER_THREADS.add(thread);
+      long allocated = allocatedBytes(thread);
+      try {
+        return task.call();
+      } finally {
+        if (allocated >= 0) {
+          WORKER_ALLOCATED_BYTES.add(allocatedBytes(thread) - allocated);
+        }
+      }
+    };
+  }
+
+  private void measure(String name, boolean parallel, Runnable body) {
+    measure(
+        name,
+        parallel,
+        () -> {
+          body.run();
+          return null;
+        });
+  }
+
+  /**
+   * Sets the outcome of the run, {@code failed} until set.
+   *
+   * @param outcome the outcome, such as {@code generated} or {@code up-to-date}
+   */
+  public void setOutcome(String outcome) {
+    this.outcome = outcome;
+  }
+
+  /**
+   * Returns the recorded phases in the order they ran.
+   *
+   * @return the phases
+   */
+  public List<Phase> getPhases() {
+    return List.copyOf(phases);
+  }
+
+  /**
+   * Formats the report as a single log line: the total wall time followed by each phase's.
+   *
+   * @return the summary
+   */
+  public String summary() {
+    return String.format(
+        "codegen %s in %d ms (%s)",
+        outcome,
+        millis(System.nanoTime() - startNanos),
+        phases.stream()
+            .map(phase -> phase.name() + " " + millis(phase.wallNanos()) + " ms")
+            .collect(Collectors.joining(", ")));
+  }
+
+  /**
+   * Writes the report as JSON.
+   *
+   * @param file the report file
+   */
+  @SneakyThrows
+  public void write(File file) {
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("project", project);
+    report.put("startedAt", startedAt.toString());
+    report.put("outcome", outcome);
+    report.put("wallNanos", System.nanoTime() - startNanos);
+    List<Map<String, Object>> phaseReports = new ArrayList<>();
+    for (Phase phase : phases) {
+      Map<String, Object> phaseReport = new LinkedHashMap<>();
+      phaseReport.put("name", phase.name());
+      phaseReport.put("wallNanos", phase.wallNanos());
+      phaseReport.put("cpuNanos", phase.cpuNanos());
+      phaseReport.put("allocatedBytes", phase.allocatedBytes());
+      if (phase.parallel()) {
+        phaseReport.put("parallel", true);
+      }
+      phaseReports.add(phaseReport);
+    }
+    report.put("phases", phaseReports);
+    file.getParentFile().mkdirs();
+    OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, report);
+  }
+
+  /**
+   * The bytes allocated by the process at one point in time.
+   *
+   * @param threads the bytes allocated by each live thread that has not run a worker task
+   * @param workers the bytes allocated by worker tasks
+   */
+  private record Allocations(Map<Long, Long> threads, long workers) {
+    /**
+     * Returns the bytes allocated between an earlier snapshot and this one. Threads that terminated
+     * in between, other than pool threads running worker tasks, are not counted.
+     *
+     * @param start the earlier snapshot
+     * @return the allocated bytes
+     */
+    long since(Allocations start) {
+      long allocated = workers - start.workers();
+      for (Map.Entry<Long, Long> thread : threads.entrySet()) {
+        allocated += thread.getValue() - start.threads().getOrDefault(thread.getKey(), 0L);
+      }
+      return allocated;
+    }
+  }
+
+  private static long cpuTime() {
+    return THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled()
+        ? THREADS.getCurrentThreadCpuTime()
+        : -1;
+  }
+
+  private static long processCpuTime() {
+    return OPERATING_SYSTEM instanceof com.sun.management.OperatingSystemMXBean operatingSystem
+        ? operatingSystem.getProcessCpuTime()
+        : -1;
+  }
+
+  private static long allocatedBytes() {
+    return allocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static long allocatedBytes(long thread) {
+    com.sun.management.ThreadMXBean threads = allocationThreads();
+    return threads == null ? -1 : threads.getThreadAllocatedBytes(thread);
+  }
+
+  /**
+   * Takes a snapshot of the bytes allocated by the process.
+   *
+   * @return the snapshot, or null if the JVM does not measure allocations
+   */
+  private static Allocations processAllocations() {
+    com.sun.management.ThreadMXBean threads = allocationThreads();
+    if (threads == null) {
+      return null;
+    }
+    // read the worker total first: a task finishing in between is then counted at most once
+    long workers = WORKER_ALLOCATED_BYTES.sum();
+    // only threads already running a task before the ids are read can be pruned as terminated
+    Set<Long> started = Set.copyOf(WORKER_THREADS);
+    long[] ids = threads.getAllThreadIds();
+    long[] allocated = threads.getThreadAllocatedBytes(ids);
+    Set<Long> live = new HashSet<>();
+    Map<Long, Long> byThread = new HashMap<>();
+    for (int i = 0; i < ids.length; i++) {
+      live.add(ids[i]);
+      if (allocated[i] >= 0 && !WORKER_THREADS.contains(ids[i])) {
+        byThread.put(ids[i], allocated[i]);
+      }
+    }
+    started.stream().filter(thread -> !live.contains(thread)).forEach(WORKER_THREADS::remove);
+    return new Allocations(byThread, workers);
+  }
+
+  private static com.sun.management.ThreadMXBean allocationThreads() {
+    if (THREADS instanceof com.sun.management.ThreadMXBean threads
+        && threads.isThreadAllocatedMemorySupported()
+        && threads.isThreadAllocatedMemoryEnabled()) {
+      return threads;
+    }
+    return null;
+  }
+
+  private static long millis(long nanos) {
+    return nanos / 1_000_000;
+  }
+}
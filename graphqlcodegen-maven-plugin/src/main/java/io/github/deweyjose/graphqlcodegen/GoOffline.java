@@ -0,0 +1,39 @@
+package io.github.deweyjose.graphqlcodegen;
+
+import java.util.Collection;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+/**
+ * Maven Mojo that resolves every remote input of the code generation ahead of time, without
+ * generating code, like {@code dependency:go-offline}. It takes the same configuration as the
+ * {@code generate} goal.
+ */
+@Mojo(
+    name = "go-offline",
+    threadSafe = true,
+    requiresDependencyResolution = ResolutionScope.COMPILE)
+public class GoOffline extends Codegen {
+
+  @Override
+  public void execute() {
+    Logger logger = new MavenLogger(getLog());
+
+    if (isSkip()) {
+      logger.info("Skipping prefetch as requested (skip=true)");
+      return;
+    }
+    if (getSchemaLockFile() == null
+        && !(isEmpty(getSchemaUrls()) && isEmpty(getIntrospectionRequests()))) {
+      logger.warn(
+          "schemaLockFile is not set: remote schemas are prefetched, but builds will fetch them"
+              + " again");
+    }
+
+    newExecutor(logger).prefetch(this, getProject().getArtifacts(), getProject().getBasedir());
+  }
+
+  private static boolean isEmpty(Collection<?> collection) {
+    return collection == null || collection.isEmpty();
+  }
+}
@@ -0,0 +1,377 @@
+package io.github.deweyjose.graphqlcodegen;
+
+import com.netflix.graphql.dgs.codegen.CodeGen;
+import com.netflix.graphql.dgs.codegen.CodeGenConfig;
+import com.netflix.graphql.dgs.codegen.CodeGenResult;
+import com.netflix.graphql.dgs.codegen.Language;
+import com.palantir.javapoet.JavaFile;
+import graphql.language.Definition;
+import graphql.language.Document;
+import graphql.language.FieldDefinition;
+import graphql.language.ObjectTypeDefinition;
+import graphql.parser.MultiSourceReader;
+import graphql.parser.Parser;
+import graphql.parser.ParserEnvironment;
+import graphql.parser.ParserOptions;
+import io.github.deweyjose.graphqlcodegen.services.SchemaDependencyGraph;
+import io.github.deweyjose.graphqlcodegen.services.SchemaFileService;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import lombok.SneakyThrows;
+
+/**
+ * Runs code generation as independent shards on a thread pool and merges their results.
+ *
+ * <p>{@link CodeGen} generates everything on a single thread. For Java generation with {@code
+ * generateDataTypes} enabled the work is split into:
+ *
+ * <ul>
+ *   <li>a types shard: data types, input types, interfaces, unions, enums, constants and data
+ *       fetchers, with the client API and docs disabled
+ *   <li>client shards: the client API, with the root fields of {@code Query}, {@code Mutation} and
+ *       {@code Subscription} partitioned between the shards through {@code includeQueries}, {@code
+ *       includeMutations} and {@code includeSubscriptions}
+ *   <li>a docs shard, when {@code generateDocs} is enabled
+ * </ul>
+ *
+ * <p>Root fields with the same name are kept in the same client shard, since CodeGen renames a
+ * mutation or subscription whose name is already used by a query. Every shard also emits some files
+ * that belong to another one (constants, data fetchers, the types the client API requires); the
+ * results are merged in shard order and only the first file generated for each path is kept, so the
+ * output is the same as a single CodeGen run and does not depend on thread scheduling.
+ *
+ * <p>Other configurations are generated with a single CodeGen run.
+ */
+public class ShardedCodeGen {
+  /** Matches no root field, since a GraphQL name cannot be empty. */
+  static final Set<String> NO_FIELDS = Set.of("");
+
+  private final Logger logger;
+  private final int parallelism;
+
+  /**
+   * Constructs a new ShardedCodeGen.
+   *
+   * @param logger the maven logger
+   * @param parallelism the number of shards to run concurrently
+   */
+  public ShardedCodeGen(Logger logger, int parallelism) {
+    this.logger = logger;
+    this.parallelism = parallelism;
+  }
+
+  /** The root fields generated by a client shard. */
+  record RootFields(Set<String> queries, Set<String> mutations, Set<String> subscriptions) {
+    RootFields() {
+      this(new HashSet<>(), new HashSet<>(), new HashSet<>());
+    }
+  }
+
+  /**
+   * Generates the sources for a config, in shards when the config allows it.
+   *
+   * @param builder the builder the config was built from; it is used to build the shard configs
+   * @param config the config to generate
+   * @return the merged generation result
+   */
+  @SneakyThrows
+  public CodeGenResult generate(CodeGenConfigBuilder builder, CodeGenConfig config) {
+    List<CodeGenConfig> shards = shards(builder, config);
+    if (shards.size() == 1) {
+      return new CodeGen(shards.get(0)).generate();
+    }
+    logger.info("generating in {} shards on {} threads", shards.size(), parallelism);
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, shards.size()));
+    try {
+      ExecutorCompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
+      CodeGenResult[] results = new CodeGenResult[shards.size()];
+      for (int i = 0; i < shards.size(); i++) {
+        int index = i;
+        completion.submit(
+            CodegenPhaseReport.worker(
+                () -> {
+                  results[index] = new CodeGen(shards.get(index)).generate();
+                  return index;
+                }));
+      }
+      for (int i = 0; i < shards.size(); i++) {
+        Future<Integer> done = completion.take();
+        try {
+          done.get();
+        } catch (ExecutionException e) {
+          throw e.getCause();
+        }
+      }
+      return merge(List.of(results));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Builds the shard configs for a config.
+   *
+   * @param builder the builder the config was built from
+   * @param config the config to generate
+   * @return the shard configs, or just the config if it cannot be sharded
+   */
+  List<CodeGenConfig> shards(CodeGenConfigBuilder builder, CodeGenConfig config) {
+    if (parallelism < 2
+        || config.getLanguage() != Language.JAVA
+        || !config.getGenerateDataTypes()
+        || (!config.getGenerateClientApi() && !config.getGenerateDocs())) {
+      return List.of(config);
+    }
+
+    List<RootFields> partitions = List.of();
+    if (config.getGenerateClientApi()) {
+      try {
+        partitions = partitionRootFields(config, parallelism);
+      } catch (Exception e) {
+        // CodeGen reports schema errors
+        logger.debug("could not read the root fields, generating in a single shard: {}", e);
+        return List.of(config);
+      }
+    }
+
+    List<CodeGenConfig> shards = new ArrayList<>();
+    shards.add(builder.setGenerateClientApi(false).setGenerateDocs(false).build());
+
+    if (config.getGenerateClientApi()) {
+      for (RootFields fields : partitions) {
+        shards.add(
+            builder
+                .setGenerateClientApi(true)
+                .setGenerateDataTypes(false)
+                .setIncludeQueries(fields.queries().isEmpty() ? NO_FIELDS : fields.queries())
+                .setIncludeMutations(fields.mutations().isEmpty() ? NO_FIELDS : fields.mutations())
+                .setIncludeSubscriptions(
+                    fields.subscriptions().isEmpty() ? NO_FIELDS : fields.subscriptions())
+                .build());
+      }
+    }
+    builder
+        .setIncludeQueries(config.getIncludeQueries())
+        .setIncludeMutations(config.getIncludeMutations())
+        .setIncludeSubscriptions(config.getIncludeSubscriptions());
+
+    if (config.getGenerateDocs()) {
+      shards.add(
+          builder
+              .setGenerateClientApi(false)
+              .setGenerateDataTypes(false)
+              .setGenerateDocs(true)
+              .build());
+    }
+
+    builder
+        .setGenerateClientApi(config.getGenerateClientApi())
+        .setGenerateDataTypes(config.getGenerateDataTypes())
+        .setGenerateDocs(config.getGenerateDocs());
+    return shards;
+  }
+
+  /**
+   * Partitions the root fields the client API is generated for. Fields are grouped by capitalized
+   * name and the groups are dealt to the shards in name order, so the partition is deterministic.
+   *
+   * @param config the config to generate
+   * @param count the maximum number of partitions
+   * @return the partitions, a single one that keeps the configured filters if the schema has no
+   *     root fields
+   */
+  static List<RootFields> partitionRootFields(CodeGenConfig config, int count) {
+    Map<String, RootFields> groups = new TreeMap<>();
+    for (ObjectTypeDefinition definition :
+        parse(config).getDefinitionsOfType(ObjectTypeDefinition.class)) {
+      Set<String> include;
+      switch (definition.getName()) {
+        case "Query" -> include = config.getIncludeQueries();
+        case "Mutation" -> include = config.getIncludeMutations();
+        case "Subscription" -> include = config.getIncludeSubscriptions();
+        default -> {
+          continue;
+        }
+      }
+      for (FieldDefinition field : definition.getFieldDefinitions()) {
+        if (!include.isEmpty() && !include.contains(field.getName())) {
+          continue;
+        }
+        RootFields group =
+            groups.computeIfAbsent(
+                field.getName().substring(0, 1).toUpperCase() + field.getName().substring(1),
+                name -> new RootFields());
+        switch (definition.getName()) {
+          case "Query" -> group.queries().add(field.getName());
+          case "Mutation" -> group.mutations().add(field.getName());
+          default -> group.subscriptions().add(field.getName());
+        }
+      }
+    }
+    if (groups.isEmpty()) {
+      return List.of(
+          new RootFields(
+              config.getIncludeQueries(),
+              config.getIncludeMutations(),
+              config.getIncludeSubscriptions()));
+    }
+
+    List<RootFields> partitions = new ArrayList<>();
+    int index = 0;
+    for (RootFields group : groups.values()) {
+      if (partitions.size() < count) {
+        partitions.add(new RootFields());
+      }
+      RootFields partition = partitions.get(index++ % count);
+      partition.queries().addAll(group.queries());
+      partition.mutations().addAll(group.mutations());
+      partition.subscriptions().addAll(group.subscriptions());
+    }
+    return partitions;
+  }
+
+  /**
+   * Parses the schemas of a config to find the root fields. Schema files come from the parse cache
+   * of {@link SchemaDependencyGraph}, which change detection has usually filled already; inline
+   * schemas and schema jars are parsed together the same way CodeGen does.
+   *
+   * @param config the config to generate
+   * @return the schema document
+   */
+  @SneakyThrows
+  private static Document parse(CodeGenConfig config) {
+    List<Definition> definitions = new ArrayList<>();
+    for (File file : schemaFiles(config.getSchemaFiles())) {
+      definitions.addAll(SchemaDependencyGraph.parse(file).getDefinitions());
+    }
+    if (!config.getSchemas().isEmpty() || !config.getSchemaJarFilesFromDependencies().isEmpty()) {
+      definitions.addAll(parseSources(config).getDefinitions());
+    }
+    return Document.newDocument().definitions(definitions).build();
+  }
+
+  /**
+   * Parses the inline schemas and schema jars of a config as a single document.
+   *
+   * @param config the config to generate
+   * @return the schema document
+   */
+  @SneakyThrows
+  private static Document parseSources(CodeGenConfig config) {
+    MultiSourceReader.Builder reader = MultiSourceReader.newMultiSourceReader();
+    List<ZipFile> jars = new ArrayList<>();
+    try {
+      for (String schema : config.getSchemas()) {
+        reader.string(schema, null);
+      }
+      for (File file : config.getSchemaJarFilesFromDependencies().stream().sorted().toList()) {
+        ZipFile jar = new ZipFile(file);
+        jars.add(jar);
+        for (ZipEntry entry : jar.stream().toList()) {
+          if (!entry.isDirectory() && SchemaFileService.isGraphqlFile(new File(entry.getName()))) {
+            reader.reader(
+                new InputStreamReader(jar.getInputStream(entry), StandardCharsets.UTF_8),
+                entry.getName());
+          }
+        }
+      }
+      ParserOptions options =
+          ParserOptions.getDefaultParserOptions()
+              .transform(
+                  builder ->
+                      builder
+                          .maxTokens(Integer.MAX_VALUE)
+                          .maxWhitespaceTokens(Integer.MAX_VALUE)
+                          .maxCharacters(Integer.MAX_VALUE));
+      try (MultiSourceReader document = reader.build()) {
+        return new Parser()
+            .parseDocument(
+                ParserEnvironment.newParserEnvironment()
+                    .document(document)
+                    .parserOptions(options)
+                    .build());
+      }
+    } finally {
+      for (ZipFile jar : jars) {
+        jar.close();
+      }
+    }
+  }
+
+  @SneakyThrows
+  private static List<File> schemaFiles(Collection<File> files) {
+    List<File> result = new ArrayList<>();
+    for (File file : files.stream().sorted().toList()) {
+      if (file.isDirectory()) {
+        try (Stream<Path> paths = Files.walk(file.toPath())) {
+          paths
+              .map(Path::toFile)
+              .filter(File::isFile)
+              .filter(SchemaFileService::isGraphqlFile)
+              .sorted()
+              .forEach(result::add);
+        }
+      } else {
+        result.add(file);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Merges shard results in shard order, keeping the first file generated for each path.
+   *
+   * @param results the shard results
+   * @return the merged result
+   */
+  static CodeGenResult merge(List<CodeGenResult> results) {
+    Set<String> seen = new HashSet<>();
+    return new CodeGenResult(
+        distinct(results.stream().map(CodeGenResult::getJavaDataTypes).toList(), seen),
+        distinct(results.stream().map(CodeGenResult::getJavaInterfaces).toList(), seen),
+        distinct(results.stream().map(CodeGenResult::getJavaEnumTypes).toList(), seen),
+        distinct(results.stream().map(CodeGenResult::getJavaDataFetchers).toList(), seen),
+        distinct(results.stream().map(CodeGenResult::getJavaQueryTypes).toList(), seen),
+        distinct(results.stream().map(CodeGenResult::getClientProjections).toList(), seen),
+        distinct(results.stream().map(CodeGenResult::getJavaConstants).toList(), seen),
+        List.of(),
+        List.of(),
+        List.of(),
+        List.of(),
+        List.of(),
+        List.of(),
+        List.of(),
+        results.stream().flatMap(result -> result.getDocFiles().stream()).toList());
+  }
+
+  private static List<JavaFile> distinct(List<List<JavaFile>> shards, Set<String> seen) {
+    List<JavaFile> files = new ArrayList<>();
+    for (List<JavaFile> shard : shards) {
+      for (JavaFile file : shard) {
+        if (seen.add(file.packageName() + "." + file.typeSpec().name())) {
+          files.add(file);
+        }
+      }
+    }
+    return files;
+  }
+}
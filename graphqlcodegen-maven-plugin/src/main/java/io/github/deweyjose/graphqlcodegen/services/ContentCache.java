@@ -0,0 +1,149 @@
+package io.github.deweyjose.graphqlcodegen.services;
+
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.ToLongFunction;
+import lombok.SneakyThrows;
+
+/**
+ * A size-bounded, least-recently-used cache of values derived from content, keyed by a hash of that
+ * content (see {@link #key(Object...)}).
+ *
+ * <p>Caches are held in static fields by the services that use them, so they are shared by every
+ * execution of the plugin in the same JVM: the modules of a reactor build, including parallel
+ * {@code -T} builds, scan a shared schema or read a shared type mapping jar once. Each value has a
+ * weight, in a unit chosen by the cache owner, and the least recently used values are evicted once
+ * the total weight exceeds the cache's maximum. Cached values are shared between threads and must
+ * not be modified.
+ *
+ * <p>The plugin's class loader outlives a single build when Maven runs in a daemon such as mvnd, so
+ * the caches stay warm between builds. Values are held through {@link SoftReference soft
+ * references}, letting the garbage collector reclaim them before the daemon runs out of memory; a
+ * reclaimed value is loaded again on its next use. Keys must therefore identify the content a value
+ * was derived from, by content hash or file stat, so that changed input is never served stale.
+ *
+ * @param <V> the type of the cached values
+ */
+public class ContentCache<V> {
+  private final long maxWeight;
+  private final ToLongFunction<V> weigher;
+  private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+
+  private record Entry<V>(SoftReference<V> value, long weight) {}
+
+  /**
+   * Loads a value on a cache miss.
+   *
+   * @param <V> the type of the value
+   */
+  @FunctionalInterface
+  public interface Loader<V> {
+    /**
+     * Loads the value.
+     *
+     * @return the value, or null to leave the key uncached
+     * @throws Exception if the value cannot be loaded
+     */
+    V load() throws Exception;
+  }
+
+  /**
+   * Constructs a new ContentCache.
+   *
+   * @param maxWeight the maximum total weight of the cached values
+   * @param weigher computes the weight of a value
+   */
+  public ContentCache(long maxWeight, ToLongFunction<V> weigher) {
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+  }
+
+  /**
+   * Returns the value cached for a key, loading and caching it on a miss. The loader runs without
+   * holding the cache lock, so concurrent misses for the same key may each load the value.
+   *
+   * @param key the content key
+   * @param loader loads the value on a miss
+   * @return the cached or loaded value
+   */
+  @SneakyThrows
+  public V get(String key, Loader<V> loader) {
+    synchronized (this) {
+      Entry<V> entry = entries.get(key);
+      if (entry != null) {
+        V value = entry.value().get();
+        if (value != null) {
+          return value;
+        }
+        entries.remove(key);
+        weight -= entry.weight();
+      }
+    }
+    V value = loader.load();
+    if (value != null) {
+      put(key, value);
+    }
+    return value;
+  }
+
+  /**
+   * Caches a value, evicting the least recently used values if the cache exceeds its maximum
+   * weight. A value heavier than the maximum is not cached.
+   *
+   * @param key the content key
+   * @param value the value
+   */
+  public synchronized void put(String key, V value) {
+    long valueWeight = weigher.applyAsLong(value);
+    if (valueWeight > maxWeight) {
+      return;
+    }
+    Entry<V> previous = entries.put(key, new Entry<>(new SoftReference<>(value), valueWeight));
+    if (previous != null) {
+      weight -= previous.weight();
+    }
+    weight += valueWeight;
+    Iterator<Entry<V>> iterator = entries.values().iterator();
+    while (weight > maxWeight && iterator.hasNext()) {
+      weight -= iterator.next().weight();
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Returns the number of cached values, including values the garbage collector has reclaimed but
+   * that have not been looked up since.
+   *
+   * @return the number of cached values
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /** Removes every cached value. */
+  public synchronized void clear() {
+    entries.clear();
+    weight = 0;
+  }
+
+  /**
+   * Computes a cache key: the SHA-256 hash of the string forms of the given parts.
+   *
+   * @param parts the content and parameters the value is derived from
+   * @return the key as a hex string
+   */
+  @SneakyThrows
+  public static String key(Object... parts) {
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    for (Object part : parts) {
+      digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+}
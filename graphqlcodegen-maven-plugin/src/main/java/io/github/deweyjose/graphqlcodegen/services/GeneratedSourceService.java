@@ -0,0 +1,261 @@
+package io.github.deweyjose.graphqlcodegen.services;
+
+import com.netflix.graphql.dgs.codegen.CodeGenConfig;
+import com.netflix.graphql.dgs.codegen.CodeGenResult;
+import com.netflix.graphql.dgs.codegen.generators.shared.DocFileSpec;
+import com.palantir.javapoet.JavaFile;
+import com.squareup.kotlinpoet.FileSpec;
+import io.github.deweyjose.graphqlcodegen.Logger;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.SneakyThrows;
+
+/**
+ * Service for writing the sources produced by code generation.
+ *
+ * <p>Code generation runs with {@code writeToFiles} disabled and this service writes the result,
+ * using the same directory layout as {@link com.netflix.graphql.dgs.codegen.CodeGen}. That lets
+ * incremental builds keep every schema file in context while only writing the classes generated for
+ * types that may have changed, and lets the plugin track every generated file so stale ones can be
+ * pruned.
+ *
+ * <p>Sources are rendered in memory and, when {@code onlyWriteChanged} is set, a file whose content
+ * is already identical is left untouched. Its last-modified time stays the same, so the compiler's
+ * incremental build does not recompile it.
+ */
+public class GeneratedSourceService {
+  private final Logger logger;
+
+  /**
+   * A generated source.
+   *
+   * @param path the file the source is written to
+   * @param type the GraphQL type the source was generated for, or null for schema-wide sources
+   * @param optional true if a write failure is only logged, as CodeGen does for client projections
+   * @param content renders the source
+   */
+  private record Source(Path path, String type, boolean optional, Supplier<String> content) {}
+
+  /**
+   * Constructs a new GeneratedSourceService.
+   *
+   * @param logger the maven logger
+   */
+  public GeneratedSourceService(Logger logger) {
+    this.logger = logger;
+  }
+
+  /**
+   * Writes generated sources to the output directories of the given config. Data types, interfaces
+   * and enums generated for a type in {@code skippedTypes} (including the {@code I<Type>}
+   * interfaces of {@code generateInterfaces}) are not written if their file already exists;
+   * everything else (data fetchers, client classes, constants, docs) always is, since it can be
+   * derived from any type of the schema. An interface or union whose implementations or members
+   * changed is not in {@code skippedTypes}, see {@link SchemaDependencyGraph}.
+   *
+   * @param config the config the sources were generated with
+   * @param result the generated sources
+   * @param skippedTypes the GraphQL types whose classes do not need to be written
+   * @param onlyWriteChanged true to leave files whose content has not changed untouched
+   * @return every generated file, written or skipped, mapped to the GraphQL type it was generated
+   *     for (empty for schema-wide sources); docs are not included
+   */
+  @SneakyThrows
+  public Map<File, String> write(
+      CodeGenConfig config,
+      CodeGenResult result,
+      Set<String> skippedTypes,
+      boolean onlyWriteChanged) {
+    List<Source> sources = sources(config, result);
+    Map<File, String> outputs = new LinkedHashMap<>();
+    int written = 0;
+    for (Source source : sources) {
+      outputs.put(source.path().toFile(), source.type() == null ? "" : source.type());
+      if (source.type() != null
+          && skippedTypes.contains(source.type())
+          && Files.exists(source.path())) {
+        continue;
+      }
+      try {
+        if (write(source.path(), source.content().get(), onlyWriteChanged)) {
+          written++;
+        }
+      } catch (Exception e) {
+        if (!source.optional()) {
+          throw e;
+        }
+        logger.warn("failed to write {}: {}", source.path(), e.getMessage());
+      }
+    }
+    for (DocFileSpec doc : result.getDocFiles()) {
+      doc.writeTo(config.getGeneratedDocsFolder());
+      written++;
+    }
+
+    logger.info(
+        "wrote {} generated files, skipped {} unchanged",
+        written,
+        sources.size() + result.getDocFiles().size() - written);
+    return outputs;
+  }
+
+  /**
+   * Writes content to a file as UTF-8, the encoding JavaPoet and KotlinPoet write with. With {@code
+   * onlyWriteChanged}, an existing file with the same size and bytes is not rewritten.
+   *
+   * @param path the file to write
+   * @param content the file content
+   * @param onlyWriteChanged true to leave a file with identical content untouched
+   * @return true if the file was written
+   * @throws IOException if the file cannot be read or written
+   */
+  static boolean write(Path path, String content, boolean onlyWriteChanged) throws IOException {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    if (onlyWriteChanged
+        && Files.isRegularFile(path)
+        && Files.size(path) == bytes.length
+        && Arrays.equals(Files.readAllBytes(path), bytes)) {
+      return false;
+    }
+    Files.createDirectories(path.getParent());
+    Files.write(path, bytes);
+    return true;
+  }
+
+  /**
+   * Moves a file over another one unless both have the same bytes, in which case the source is
+   * deleted and the target keeps its last-modified time.
+   *
+   * @param source the file to move
+   * @param target the file to replace
+   * @return true if the target was replaced
+   * @throws IOException if a file cannot be read, moved or deleted
+   */
+  static boolean replace(Path source, Path target) throws IOException {
+    if (Files.isRegularFile(target)
+        && Files.size(target) == Files.size(source)
+        && Files.mismatch(source, target) == -1) {
+      Files.delete(source);
+      return false;
+    }
+    Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    return true;
+  }
+
+  /**
+   * Deletes previously generated files that are no longer generated.
+   *
+   * @param files the stale files
+   */
+  @SneakyThrows
+  public void delete(Collection<File> files) {
+    for (File file : files) {
+      if (Files.deleteIfExists(file.toPath())) {
+        logger.info("deleted stale generated file {}", file);
+      }
+    }
+  }
+
+  private static List<Source> sources(CodeGenConfig config, CodeGenResult result) {
+    Path outputDir = config.getOutputDir();
+    Path examplesOutputDir = config.getExamplesOutputDir();
+    Set<String> dataTypes =
+        result.getJavaDataTypes().stream()
+            .map(file -> file.typeSpec().name())
+            .collect(Collectors.toSet());
+    result.getKotlinDataTypes().forEach(file -> dataTypes.add(file.getName()));
+
+    List<Source> sources = new ArrayList<>();
+    for (JavaFile file : result.getJavaDataTypes()) {
+      sources.add(java(file, outputDir, file.typeSpec().name(), false));
+    }
+    for (JavaFile file : result.getJavaInterfaces()) {
+      String type = interfaceType(config, dataTypes, file.typeSpec().name());
+      sources.add(java(file, outputDir, type, false));
+    }
+    for (JavaFile file : result.getJavaEnumTypes()) {
+      sources.add(java(file, outputDir, file.typeSpec().name(), false));
+    }
+    for (JavaFile file : result.getJavaDataFetchers()) {
+      sources.add(java(file, examplesOutputDir, null, false));
+    }
+    for (JavaFile file : result.getJavaQueryTypes()) {
+      sources.add(java(file, outputDir, null, false));
+    }
+    for (JavaFile file : result.getClientProjections()) {
+      sources.add(java(file, outputDir, null, true));
+    }
+    for (JavaFile file : result.getJavaConstants()) {
+      sources.add(java(file, outputDir, null, false));
+    }
+    for (FileSpec file : result.getKotlinDataTypes()) {
+      sources.add(kotlin(file, outputDir, file.getName()));
+    }
+    for (FileSpec file : result.getKotlinInputTypes()) {
+      sources.add(kotlin(file, outputDir, file.getName()));
+    }
+    for (FileSpec file : result.getKotlinInterfaces()) {
+      sources.add(kotlin(file, outputDir, interfaceType(config, dataTypes, file.getName())));
+    }
+    for (FileSpec file : result.getKotlinEnumTypes()) {
+      sources.add(kotlin(file, outputDir, file.getName()));
+    }
+    for (FileSpec file : result.getKotlinDataFetchers()) {
+      sources.add(kotlin(file, examplesOutputDir, null));
+    }
+    for (FileSpec file : result.getKotlinConstants()) {
+      sources.add(kotlin(file, outputDir, null));
+    }
+    for (FileSpec file : result.getKotlinClientTypes()) {
+      sources.add(kotlin(file, outputDir, null));
+    }
+    return sources;
+  }
+
+  private static Source java(JavaFile file, Path directory, String type, boolean optional) {
+    Path path = directory;
+    if (!file.packageName().isEmpty()) {
+      for (String component : file.packageName().split("\\.")) {
+        path = path.resolve(component);
+      }
+    }
+    path = path.resolve(file.typeSpec().name() + ".java");
+    return new Source(path, type, optional, file::toString);
+  }
+
+  private static Source kotlin(FileSpec file, Path directory, String type) {
+    Path path = directory.resolve(file.getRelativePath());
+    return new Source(path, type, false, file::toString);
+  }
+
+  /**
+   * Returns the GraphQL type an interface was generated for: with {@code generateInterfaces}, data
+   * type {@code Show} also gets an interface named {@code IShow}.
+   *
+   * @param config the config the sources were generated with
+   * @param dataTypes the names of the generated data types
+   * @param name the interface name
+   * @return the GraphQL type name
+   */
+  private static String interfaceType(CodeGenConfig config, Set<String> dataTypes, String name) {
+    if (config.getGenerateInterfaces()
+        && name.startsWith("I")
+        && dataTypes.contains(name.substring(1))) {
+      return name.substring(1);
+    }
+    return name;
+  }
+}
@@ -1,18 +1,39 @@
 package io.github.deweyjose.graphqlcodegen.services;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import graphql.ExecutionResult;
 import graphql.introspection.IntrospectionResultToSchema;
+import graphql.language.AstPrinter;
+import graphql.language.Definition;
 import graphql.language.Document;
+import graphql.language.SchemaDefinition;
 import graphql.schema.idl.SchemaPrinter;
 import io.github.deweyjose.graphqlcodegen.Logger;
+import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.SneakyThrows;
@@ -24,11 +45,22 @@ import lombok.SneakyThrows;
  *
  * <ul>
  *   <li>Fetch a remote GraphQL schema file via HTTP GET
+ *   <li>Download a remote GraphQL schema file with a conditional HTTP GET, reusing the cached file
+ *       when the server reports it has not been modified
  *   <li>Fetch and convert a remote GraphQL schema via introspection (HTTP POST)
+ *   <li>Stream the introspection result of a remote GraphQL schema into an SDL file
  *   <li>Convert introspection JSON results to GraphQL SDL
  * </ul>
+ *
+ * <p>Every request accepts gzip and deflate encoded responses, which are decompressed as they are
+ * read. The compressed and uncompressed sizes of each response are logged at debug level.
  */
 public class RemoteSchemaService {
+  static final String ETAG = "ETag";
+  static final String LAST_MODIFIED = "Last-Modified";
+  static final String ACCEPT_ENCODING = "gzip, deflate";
+  private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+
   private final HttpClient httpClient;
   private final ObjectMapper objectMapper = new ObjectMapper();
   private final Logger logger;
@@ -61,13 +93,122 @@ public class RemoteSchemaService {
    * @throws InterruptedException if the thread is interrupted
    */
   public String getRemoteSchemaFile(String url) throws IOException, InterruptedException {
-    HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).GET().build();
-    HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-    logger.debug("Remote schema file: {}", response.body());
-    if (response.statusCode() != 200) {
-      throw new IOException("Failed to get remote schema file: " + response.statusCode());
+    HttpRequest request =
+        HttpRequest.newBuilder()
+            .uri(URI.create(url))
+            .header("Accept-Encoding", ACCEPT_ENCODING)
+            .GET()
+            .build();
+    HttpResponse<InputStream> response =
+        httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    try (DecodedBody body = new DecodedBody(url, response)) {
+      if (response.statusCode() != 200) {
+        throw new IOException("Failed to get remote schema file: " + response.statusCode());
+      }
+      String schema = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+      logger.debug("Remote schema file: {}", schema);
+      return schema;
+    }
+  }
+
+  /**
+   * Downloads a remote GraphQL schema file via HTTP GET into the given file.
+   *
+   * <p>The {@code ETag} and {@code Last-Modified} response headers are saved next to the file (as
+   * {@code <file>.properties}) and sent back as {@code If-None-Match} and {@code If-Modified-Since}
+   * on the next download. On a 304 response the cached file is kept as is. On a 200 response the
+   * body is decompressed and streamed to a temporary file that then replaces the cached one, unless
+   * the cached one already has the same content, so an unchanged schema keeps its last-modified
+   * time.
+   *
+   * @param url the URL of the remote schema file
+   * @param file the file to download the schema into
+   * @return the downloaded or cached schema file
+   * @throws IOException if the request fails or returns a status other than 200 or 304
+   * @throws InterruptedException if the thread is interrupted
+   */
+  public File downloadRemoteSchemaFile(String url, File file)
+      throws IOException, InterruptedException {
+    Path path = file.toPath();
+    Path metadataPath = metadataPath(file);
+    Path tempPath = path.resolveSibling(file.getName() + ".tmp");
+    Files.createDirectories(path.getParent());
+
+    HttpRequest.Builder builder =
+        HttpRequest.newBuilder()
+            .uri(URI.create(url))
+            .header("Accept-Encoding", ACCEPT_ENCODING)
+            .GET();
+    if (Files.isRegularFile(path) && Files.isRegularFile(metadataPath)) {
+      Properties metadata = new Properties();
+      try (InputStream in = Files.newInputStream(metadataPath)) {
+        metadata.load(in);
+      }
+      Optional.ofNullable(metadata.getProperty(ETAG))
+          .ifPresent(etag -> builder.header("If-None-Match", etag));
+      Optional.ofNullable(metadata.getProperty(LAST_MODIFIED))
+          .ifPresent(lastModified -> builder.header("If-Modified-Since", lastModified));
+    }
+
+    HttpResponse<InputStream> response =
+        httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+    boolean changed;
+    try (DecodedBody body = new DecodedBody(url, response)) {
+      if (response.statusCode() == 304) {
+        logger.info("{} has not been modified, using cached schema {}", url, file);
+        return file;
+      }
+      if (response.statusCode() != 200) {
+        throw new IOException("Failed to get remote schema file: " + response.statusCode());
+      }
+      Files.copy(body, tempPath, StandardCopyOption.REPLACE_EXISTING);
+      changed = GeneratedSourceService.replace(tempPath, path);
+    } finally {
+      Files.deleteIfExists(tempPath);
+    }
+
+    Properties metadata = new Properties();
+    response.headers().firstValue(ETAG).ifPresent(etag -> metadata.setProperty(ETAG, etag));
+    response
+        .headers()
+        .firstValue(LAST_MODIFIED)
+        .ifPresent(lastModified -> metadata.setProperty(LAST_MODIFIED, lastModified));
+    if (metadata.isEmpty()) {
+      Files.deleteIfExists(metadataPath);
+    } else {
+      try (OutputStream out = Files.newOutputStream(metadataPath)) {
+        metadata.store(out, url);
+      }
     }
-    return response.body();
+    if (changed) {
+      logger.info("downloaded {} to {}", url, file);
+    } else {
+      logger.info("{} is unchanged, keeping schema {}", url, file);
+    }
+    return file;
+  }
+
+  /**
+   * Deletes the {@code ETag} and {@code Last-Modified} saved for a schema file by {@link
+   * #downloadRemoteSchemaFile(String, File)}, so the next download is unconditional. Must be called
+   * whenever the file is written from anything other than a response, or a 304 could keep content
+   * older than the validators describe.
+   *
+   * @param file the schema file
+   * @throws IOException if the metadata cannot be deleted
+   */
+  public void discardValidators(File file) throws IOException {
+    Files.deleteIfExists(metadataPath(file));
+  }
+
+  /**
+   * Returns the file the validators of a downloaded schema file are saved in.
+   *
+   * @param file the schema file
+   * @return the metadata file
+   */
+  private static Path metadataPath(File file) {
+    return file.toPath().resolveSibling(file.getName() + ".properties");
   }
 
   /**
@@ -81,25 +222,187 @@ public class RemoteSchemaService {
   @SneakyThrows
   public String getIntrospectedSchemaFile(
       String url, IntrospectionOperation operation, Map<String, String> headers) {
+    HttpRequest request = introspectionRequest(url, operation, headers);
+    HttpResponse<InputStream> response =
+        httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    String results;
+    try (DecodedBody body = new DecodedBody(url, response)) {
+      if (response.statusCode() != 200) {
+        throw new IOException("Failed to get introspection results: " + response.statusCode());
+      }
+      results = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    logger.debug("Introspection results: {}", results);
+    Map<String, Object> introspection = objectMapper.readValue(results, JSON_OBJECT);
+    return convertIntrospectionToSchema(introspection);
+  }
+
+  /**
+   * Fetches a remote GraphQL schema via introspection (HTTP POST) and streams it as SDL into the
+   * given file.
+   *
+   * <p>The response body is decoded as it arrives and never held in memory as a whole, see {@link
+   * #convertIntrospectionToSchema(InputStream, Writer)}. The SDL is written to a temporary file
+   * that then replaces the given one, unless the given one already has the same content.
+   *
+   * @param url the URL of the GraphQL endpoint
+   * @param operation the introspection operation (query and operation name)
+   * @param headers additional HTTP headers to include in the request
+   * @param file the file to write the schema SDL to
+   * @return the schema file
+   * @throws IOException if the request fails, returns a non-200 status or has no schema
+   * @throws InterruptedException if the thread is interrupted
+   */
+  public File downloadIntrospectedSchemaFile(
+      String url, IntrospectionOperation operation, Map<String, String> headers, File file)
+      throws IOException, InterruptedException {
+    Path path = file.toPath();
+    Path tempPath = path.resolveSibling(file.getName() + ".tmp");
+    Files.createDirectories(path.getParent());
+
+    HttpResponse<InputStream> response =
+        httpClient.send(
+            introspectionRequest(url, operation, headers),
+            HttpResponse.BodyHandlers.ofInputStream());
+    try (DecodedBody body = new DecodedBody(url, response)) {
+      if (response.statusCode() != 200) {
+        throw new IOException("Failed to get introspection results: " + response.statusCode());
+      }
+      try (Writer writer = Files.newBufferedWriter(tempPath)) {
+        convertIntrospectionToSchema(body, writer);
+      }
+      GeneratedSourceService.replace(tempPath, path);
+    } finally {
+      Files.deleteIfExists(tempPath);
+    }
+    logger.info("introspected {} into {}", url, file);
+    return file;
+  }
+
+  /**
+   * Builds the HTTP POST request for an introspection operation.
+   *
+   * @param url the URL of the GraphQL endpoint
+   * @param operation the introspection operation (query and operation name)
+   * @param headers additional HTTP headers to include in the request
+   * @return the request
+   * @throws IOException if the operation cannot be serialized
+   */
+  private HttpRequest introspectionRequest(
+      String url, IntrospectionOperation operation, Map<String, String> headers)
+      throws IOException {
     HttpRequest.Builder builder =
         HttpRequest.newBuilder()
             .uri(URI.create(url))
             .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(operation)))
-            .header("Content-Type", "application/json");
+            .header("Content-Type", "application/json")
+            .header("Accept-Encoding", ACCEPT_ENCODING);
 
     if (!headers.isEmpty()) {
       headers.forEach(builder::header);
     }
+    return builder.build();
+  }
 
-    HttpRequest request = builder.build();
-    HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-    logger.debug("Introspection results: {}", response.body());
-    if (response.statusCode() != 200) {
-      throw new IOException("Failed to get introspection results: " + response.statusCode());
+  /**
+   * Converts an introspection JSON result to GraphQL SDL while reading it.
+   *
+   * <p>Only one type or directive of {@code data.__schema} is decoded at a time. It is converted
+   * and printed before the next one is read, so memory use is bounded by the largest type rather
+   * than by the size of the result. The schema definition, when the root operation types are not
+   * named Query, Mutation and Subscription, is printed last.
+   *
+   * @param introspection the introspection result JSON (should contain a "data" key)
+   * @param schema the writer the GraphQL schema SDL is printed to
+   * @throws IOException if the JSON cannot be read, has no {@code data.__schema} object, or the SDL
+   *     cannot be written
+   */
+  public void convertIntrospectionToSchema(InputStream introspection, Writer schema)
+      throws IOException {
+    try (JsonParser parser = objectMapper.createParser(introspection)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Introspection result is not a JSON object");
+      }
+      boolean converted = false;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.currentName();
+        if (parser.nextToken() == JsonToken.START_OBJECT && name.equals("data")) {
+          while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String dataName = parser.currentName();
+            if (parser.nextToken() == JsonToken.START_OBJECT && dataName.equals("__schema")) {
+              convertSchema(parser, schema);
+              converted = true;
+            } else {
+              parser.skipChildren();
+            }
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+      if (!converted) {
+        throw new IOException("Introspection result has no data.__schema object");
+      }
+    }
+  }
+
+  /**
+   * Converts the {@code __schema} object the parser is positioned on, printing every type and
+   * directive as soon as it is read.
+   *
+   * @param parser the parser, positioned on the start of the {@code __schema} object
+   * @param schema the writer the GraphQL schema SDL is printed to
+   * @throws IOException if the JSON cannot be read or the SDL cannot be written
+   */
+  private void convertSchema(JsonParser parser, Writer schema) throws IOException {
+    Map<String, Object> roots = new HashMap<>();
+    roots.put("queryType", Map.of("name", "Query"));
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.currentName();
+      parser.nextToken();
+      switch (name) {
+        case "types", "directives" -> {
+          if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            continue;
+          }
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            Map<String, Object> element = objectMapper.readValue(parser, JSON_OBJECT);
+            Map<String, Object> single = new HashMap<>();
+            single.put("queryType", Map.of("name", "Query"));
+            single.put(name, List.of(element));
+            printDefinitions(single, schema, false);
+          }
+        }
+        case "queryType", "mutationType", "subscriptionType", "description" ->
+            roots.put(name, objectMapper.readValue(parser, Object.class));
+        default -> parser.skipChildren();
+      }
+    }
+    printDefinitions(roots, schema, true);
+  }
+
+  /**
+   * Converts part of a {@code __schema} object and prints the resulting definitions.
+   *
+   * @param schemaMap the {@code __schema} object, or the part of it to convert
+   * @param schema the writer the GraphQL schema SDL is printed to
+   * @param schemaDefinition whether to print the schema definition rather than the other
+   *     definitions
+   * @throws IOException if the SDL cannot be written
+   */
+  private void printDefinitions(
+      Map<String, Object> schemaMap, Writer schema, boolean schemaDefinition) throws IOException {
+    schemaMap.putIfAbsent("types", List.of());
+    schemaMap.putIfAbsent("directives", List.of());
+    Document document =
+        new IntrospectionResultToSchema().createSchemaDefinition(Map.of("__schema", schemaMap));
+    for (Definition<?> definition : document.getDefinitions()) {
+      if (definition instanceof SchemaDefinition == schemaDefinition) {
+        AstPrinter.printAst(schema, definition);
+        schema.write("\n\n");
+      }
     }
-    Map<String, Object> introspection =
-        objectMapper.readValue(response.body(), new TypeReference<Map<String, Object>>() {});
-    return convertIntrospectionToSchema(introspection);
   }
 
   /**
@@ -117,4 +420,98 @@ public class RemoteSchemaService {
     String sdl = schemaPrinter.print(schema);
     return sdl;
   }
+
+  /**
+   * A response body decompressed according to its {@code Content-Encoding}. Closing it logs the
+   * number of bytes received and the number of bytes they decompressed to.
+   */
+  private final class DecodedBody extends FilterInputStream {
+    private final String url;
+    private final String encoding;
+    private final CountingInputStream received;
+
+    DecodedBody(String url, HttpResponse<InputStream> response) throws IOException {
+      super(null);
+      this.url = url;
+      this.encoding = response.headers().firstValue("Content-Encoding").orElse("identity");
+      this.received = new CountingInputStream(response.body());
+      try {
+        this.in = new CountingInputStream(decode(encoding, received, response.statusCode()));
+      } catch (IOException e) {
+        received.close();
+        throw e;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        logger.debug(
+            "{}: received {} bytes ({}), decoded to {} bytes",
+            url,
+            received.count,
+            encoding,
+            ((CountingInputStream) in).count);
+      }
+    }
+  }
+
+  /**
+   * Wraps a response body in a decompressing stream. Bodies of responses other than 200, which are
+   * not read, are returned as is.
+   *
+   * @param encoding the {@code Content-Encoding} of the response
+   * @param in the response body
+   * @param statusCode the response status code
+   * @return the decompressed body
+   * @throws IOException if the encoding is not supported or the gzip header cannot be read
+   */
+  private static InputStream decode(String encoding, InputStream in, int statusCode)
+      throws IOException {
+    if (statusCode != 200) {
+      return in;
+    }
+    return switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+      case "gzip", "x-gzip" -> new GZIPInputStream(in);
+      case "deflate" -> new InflaterInputStream(in);
+      case "identity", "" -> in;
+      default -> throw new IOException("Unsupported Content-Encoding: " + encoding);
+    };
+  }
+
+  /** Counts the bytes read through it. */
+  private static final class CountingInputStream extends FilterInputStream {
+    private long count;
+
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) {
+        count += n;
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      count += skipped;
+      return skipped;
+    }
+  }
 }
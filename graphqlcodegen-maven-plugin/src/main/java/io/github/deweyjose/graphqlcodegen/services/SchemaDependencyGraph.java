@@ -0,0 +1,400 @@
+package io.github.deweyjose.graphqlcodegen.services;
+
+import graphql.language.AstPrinter;
+import graphql.language.Definition;
+import graphql.language.Directive;
+import graphql.language.DirectiveDefinition;
+import graphql.language.Document;
+import graphql.language.ImplementingTypeDefinition;
+import graphql.language.Node;
+import graphql.language.SDLNamedDefinition;
+import graphql.language.SchemaDefinition;
+import graphql.language.TypeName;
+import graphql.language.UnionTypeDefinition;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import graphql.parser.ParserEnvironment;
+import graphql.parser.ParserOptions;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import lombok.SneakyThrows;
+
+/**
+ * Cross-file type dependency graph of a set of schema files, used to find the generated types a
+ * schema change affects.
+ *
+ * <p>Each file contributes the types it defines or extends, plus the members of the unions it
+ * defines (their generated classes implement the union) and the interfaces its types implement (the
+ * generated interface lists its implementations as Jackson subtypes). A type depends on every type
+ * that its definitions and extensions reference through fields, arguments, implemented interfaces,
+ * union members and applied directives, and an interface also depends on its implementations.
+ * Directives are tracked as {@code @name}.
+ *
+ * <p>The graph also hashes each type: its definitions and extensions in file order, plus the unions
+ * it is a member of and, for an interface, the types implementing it. Comparing these hashes
+ * between builds finds the types an edit changed, even inside a single large schema file, including
+ * an interface that gained or lost an implementation in another file.
+ *
+ * <p>Parsed files are cached in {@link #DOCUMENTS} by content, and by path, size and last-modified
+ * time. Change detection and shard planning in modules of the same build that share schema files
+ * only parse them once, and under a long-lived JVM such as the Maven daemon a later build does not
+ * even read unchanged files. CodeGen still parses every schema itself, since it builds its document
+ * internally.
+ */
+public class SchemaDependencyGraph {
+  private static final ParserOptions PARSER_OPTIONS =
+      ParserOptions.getDefaultSdlParserOptions()
+          .transform(
+              builder ->
+                  builder
+                      .maxTokens(Integer.MAX_VALUE)
+                      .maxWhitespaceTokens(Integer.MAX_VALUE)
+                      .maxCharacters(Integer.MAX_VALUE)
+                      .captureSourceLocation(false)
+                      .captureLineComments(false));
+
+  /** Parsed schema files by content, bounded by the total number of definitions. */
+  static final ContentCache<Document> DOCUMENTS =
+      new ContentCache<>(500_000, document -> document.getDefinitions().size() + 1L);
+
+  private final Map<File, Set<String>> contributions = new HashMap<>();
+  private final Map<String, Set<File>> contributors = new HashMap<>();
+  private final Map<String, Set<String>> dependents = new HashMap<>();
+  private final Map<String, Map<File, List<Node<?>>>> definitions = new HashMap<>();
+  private final Map<String, Set<String>> unions = new HashMap<>();
+  private final Map<String, Set<String>> implementations = new HashMap<>();
+  private final Set<File> schemaDefinitionFiles = new HashSet<>();
+  private final Set<File> unparsedFiles = new HashSet<>();
+
+  /**
+   * The types a single file contributes and the references of each of its definitions.
+   *
+   * @param file the schema file
+   * @param contributions the type names the file defines, extends, lists as union members or
+   *     implements
+   * @param references the names referenced by the file's definitions, keyed by definition name
+   * @param definitions the file's definitions and extensions, keyed by name
+   * @param unions the unions the file defines, keyed by member name
+   * @param implementations the types the file declares as implementing an interface, keyed by
+   *     interface name
+   * @param schemaDefinition true if the file contains a schema definition or extension
+   * @param parsed false if the file could not be parsed
+   */
+  private record FileTypes(
+      File file,
+      Set<String> contributions,
+      Map<String, Set<String>> references,
+      Map<String, List<Node<?>>> definitions,
+      Map<String, Set<String>> unions,
+      Map<String, Set<String>> implementations,
+      boolean schemaDefinition,
+      boolean parsed) {}
+
+  private SchemaDependencyGraph() {}
+
+  /**
+   * Builds the dependency graph of the given schema files. Files are parsed in parallel. Files that
+   * do not exist contribute nothing; files that cannot be parsed are reported by {@link
+   * #isComplete()}.
+   *
+   * @param files the schema files
+   * @return the dependency graph
+   */
+  public static SchemaDependencyGraph of(Collection<File> files) {
+    SchemaDependencyGraph graph = new SchemaDependencyGraph();
+    files.parallelStream().map(SchemaDependencyGraph::scan).toList().forEach(graph::add);
+    return graph;
+  }
+
+  /**
+   * Returns true if every file was parsed. An incomplete graph cannot be used to narrow code
+   * generation.
+   *
+   * @return true if every file was parsed
+   */
+  public boolean isComplete() {
+    return unparsedFiles.isEmpty();
+  }
+
+  /**
+   * Returns true if the file contains a schema definition or extension, which can change the root
+   * operation types and therefore affects every type.
+   *
+   * @param file the schema file
+   * @return true if the file declares the schema
+   */
+  public boolean definesSchema(File file) {
+    return schemaDefinitionFiles.contains(file);
+  }
+
+  /**
+   * Returns the type names a file contributes to: the types it defines or extends, the members of
+   * the unions it defines and the interfaces its types implement.
+   *
+   * @param file the schema file
+   * @return the contributed type names, empty if the file is not part of the graph
+   */
+  public Set<String> getContributions(File file) {
+    return contributions.getOrDefault(file, Collections.emptySet());
+  }
+
+  /**
+   * Returns the type names each parsed file contributes to.
+   *
+   * @return the contributed type names keyed by file
+   */
+  public Map<File, Set<String>> getContributions() {
+    return Collections.unmodifiableMap(contributions);
+  }
+
+  /**
+   * Returns every type name contributed by the files of the graph.
+   *
+   * @return the type names
+   */
+  public Set<String> getTypes() {
+    return Collections.unmodifiableSet(contributors.keySet());
+  }
+
+  /**
+   * Returns the given types together with the types that directly depend on them.
+   *
+   * @param types the type names
+   * @return the type names and their dependents
+   */
+  public Set<String> withDependents(Set<String> types) {
+    Set<String> result = new HashSet<>(types);
+    for (String type : types) {
+      result.addAll(dependents.getOrDefault(type, Collections.emptySet()));
+    }
+    return result;
+  }
+
+  /**
+   * Computes the hash of a type from the printed form of its definitions and extensions, in file
+   * path order, the names of the unions it is a member of and the names of the types implementing
+   * it. Comments and formatting do not affect the hash.
+   *
+   * @param type the type name
+   * @return the type hash as a SHA-256 hex string, or null if no file contributes to the type
+   */
+  @SneakyThrows
+  public String typeHash(String type) {
+    if (!contributors.containsKey(type)) {
+      return null;
+    }
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    new TreeMap<>(definitions.getOrDefault(type, Collections.emptyMap()))
+        .values()
+        .forEach(
+            nodes ->
+                nodes.forEach(
+                    node ->
+                        digest.update(
+                            (AstPrinter.printAstCompact(node) + "\n")
+                                .getBytes(StandardCharsets.UTF_8))));
+    new TreeSet<>(unions.getOrDefault(type, Collections.emptySet()))
+        .forEach(
+            union -> digest.update(("member of " + union + "\n").getBytes(StandardCharsets.UTF_8)));
+    new TreeSet<>(implementations.getOrDefault(type, Collections.emptySet()))
+        .forEach(
+            implementation ->
+                digest.update(
+                    ("implemented by " + implementation + "\n").getBytes(StandardCharsets.UTF_8)));
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Returns the files that contribute to any of the given types.
+   *
+   * @param types the type names
+   * @return the contributing files
+   */
+  public Set<File> getContributors(Set<String> types) {
+    Set<File> result = new HashSet<>();
+    for (String type : types) {
+      result.addAll(contributors.getOrDefault(type, Collections.emptySet()));
+    }
+    return result;
+  }
+
+  private void add(FileTypes fileTypes) {
+    if (!fileTypes.parsed()) {
+      unparsedFiles.add(fileTypes.file());
+      return;
+    }
+    if (fileTypes.schemaDefinition()) {
+      schemaDefinitionFiles.add(fileTypes.file());
+    }
+    contributions.put(fileTypes.file(), fileTypes.contributions());
+    for (String type : fileTypes.contributions()) {
+      contributors.computeIfAbsent(type, k -> new HashSet<>()).add(fileTypes.file());
+    }
+    fileTypes
+        .definitions()
+        .forEach(
+            (type, nodes) ->
+                definitions
+                    .computeIfAbsent(type, k -> new HashMap<>())
+                    .put(fileTypes.file(), nodes));
+    fileTypes
+        .unions()
+        .forEach(
+            (member, memberOf) ->
+                unions.computeIfAbsent(member, k -> new HashSet<>()).addAll(memberOf));
+    fileTypes
+        .implementations()
+        .forEach(
+            (type, implementedBy) -> {
+              implementations.computeIfAbsent(type, k -> new HashSet<>()).addAll(implementedBy);
+              implementedBy.forEach(
+                  implementation ->
+                      dependents.computeIfAbsent(implementation, k -> new HashSet<>()).add(type));
+            });
+    fileTypes
+        .references()
+        .forEach(
+            (type, references) ->
+                references.forEach(
+                    reference ->
+                        dependents.computeIfAbsent(reference, k -> new HashSet<>()).add(type)));
+  }
+
+  private static FileTypes scan(File file) {
+    Set<String> contributions = new HashSet<>();
+    Map<String, Set<String>> references = new HashMap<>();
+    Map<String, List<Node<?>>> definitions = new HashMap<>();
+    Map<String, Set<String>> unions = new HashMap<>();
+    Map<String, Set<String>> implementations = new HashMap<>();
+    boolean schemaDefinition = false;
+    Document document;
+    try {
+      document = parse(file);
+    } catch (InvalidSyntaxException | UncheckedIOException e) {
+      return new FileTypes(
+          file, contributions, references, definitions, unions, implementations, false, false);
+    }
+
+    for (Definition<?> definition : document.getDefinitions()) {
+      if (definition instanceof SchemaDefinition) {
+        schemaDefinition = true;
+      } else if (definition instanceof SDLNamedDefinition<?> named) {
+        String name =
+            definition instanceof DirectiveDefinition ? "@" + named.getName() : named.getName();
+        contributions.add(name);
+        definitions.computeIfAbsent(name, k -> new ArrayList<>()).add(definition);
+        if (definition instanceof UnionTypeDefinition union) {
+          union.getMemberTypes().stream()
+              .filter(TypeName.class::isInstance)
+              .map(member -> ((TypeName) member).getName())
+              .forEach(
+                  member -> {
+                    contributions.add(member);
+                    unions.computeIfAbsent(member, k -> new HashSet<>()).add(name);
+                  });
+        }
+        if (definition instanceof ImplementingTypeDefinition<?> implementing) {
+          implementing.getImplements().stream()
+              .filter(TypeName.class::isInstance)
+              .map(implemented -> ((TypeName) implemented).getName())
+              .forEach(
+                  implemented -> {
+                    contributions.add(implemented);
+                    implementations.computeIfAbsent(implemented, k -> new HashSet<>()).add(name);
+                  });
+        }
+        Set<String> definitionReferences = references.computeIfAbsent(name, k -> new HashSet<>());
+        collectReferences(definition, definitionReferences);
+        definitionReferences.remove(name);
+      }
+    }
+    return new FileTypes(
+        file,
+        contributions,
+        references,
+        definitions,
+        unions,
+        implementations,
+        schemaDefinition,
+        true);
+  }
+
+  private static void collectReferences(Node<?> node, Set<String> references) {
+    List<Node> children = node.getChildren();
+    for (Node<?> child : children) {
+      if (child instanceof TypeName typeName) {
+        references.add(typeName.getName());
+      } else if (child instanceof Directive directive) {
+        references.add("@" + directive.getName());
+      }
+      collectReferences(child, references);
+    }
+  }
+
+  /**
+   * Parses a schema file. A file whose path, size and last-modified time match a cached parse is
+   * not read again; otherwise the file is read and its parse is looked up by content. The document
+   * is shared and must not be modified.
+   *
+   * @param file the schema file
+   * @return the parsed document, empty for a missing or blank file
+   */
+  public static Document parse(File file) {
+    BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+    } catch (NoSuchFileException e) {
+      return Document.newDocument().build();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (!attributes.isRegularFile()) {
+      return Document.newDocument().build();
+    }
+    return DOCUMENTS.get(
+        ContentCache.key(
+            "stat",
+            file.getAbsolutePath(),
+            attributes.size(),
+            attributes.lastModifiedTime().toMillis()),
+        () -> {
+          try {
+            return parse(Files.readString(file.toPath()));
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+  }
+
+  private static Document parse(String content) {
+    if (content.isBlank()) {
+      return Document.newDocument().build();
+    }
+    return DOCUMENTS.get(
+        ContentCache.key(content),
+        () ->
+            new Parser()
+                .parseDocument(
+                    ParserEnvironment.newParserEnvironment()
+                        .document(content)
+                        .parserOptions(PARSER_OPTIONS)
+                        .build()));
+  }
+}
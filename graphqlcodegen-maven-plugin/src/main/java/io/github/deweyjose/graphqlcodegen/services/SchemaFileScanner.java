@@ -0,0 +1,188 @@
+package io.github.deweyjose.graphqlcodegen.services;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Finds GraphQL schema files (see {@link SchemaFileService#isGraphqlFile(File)}) in directory
+ * trees.
+ *
+ * <p>Patterns are {@link java.nio.file.FileSystem#getPathMatcher(String) globs} matched against
+ * paths relative to the scanned directory, using {@code /} as the separator. A leading {@code **}
+ * segment also matches zero directories, so <code>**&#47;node_modules/**</code> excludes a
+ * top-level {@code node_modules} too. When include patterns are given, a schema file must match one
+ * of them; a file or directory matching an exclude pattern is skipped, and an excluded directory is
+ * not descended into. Excluding {@code dir/**} excludes {@code dir} itself.
+ *
+ * <p>Trees are walked with {@link Files#walkFileTree}, which reads the attributes of each entry
+ * once, and the subdirectories of each scanned directory are walked in parallel.
+ */
+public class SchemaFileScanner {
+  private final List<PathMatcher> includes;
+  private final List<PathMatcher> excludes;
+
+  /**
+   * Constructs a new SchemaFileScanner.
+   *
+   * @param includes the glob patterns schema files must match, or empty to include all of them
+   * @param excludes the glob patterns of files and directories to skip
+   */
+  public SchemaFileScanner(Collection<String> includes, Collection<String> excludes) {
+    this.includes = matchers(includes, false);
+    this.excludes = matchers(excludes, true);
+  }
+
+  /**
+   * Recursively finds the schema files in a directory.
+   *
+   * @param directory the directory to search
+   * @return the schema files found, empty if the directory cannot be read
+   */
+  public Set<File> scan(File directory) {
+    Path root = directory.toPath();
+    List<Path> files = new ArrayList<>();
+    List<Path> directories = new ArrayList<>();
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(root)) {
+      for (Path entry : entries) {
+        BasicFileAttributes attributes;
+        try {
+          attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+        } catch (IOException e) {
+          continue;
+        }
+        if (attributes.isDirectory()) {
+          if (!isExcluded(root, entry)) {
+            directories.add(entry);
+          }
+        } else if (attributes.isRegularFile() && accept(root, entry)) {
+          files.add(entry);
+        }
+      }
+    } catch (IOException e) {
+      return Collections.emptySet();
+    }
+
+    Set<File> result = files.stream().map(Path::toFile).collect(Collectors.toSet());
+    directories.parallelStream()
+        .map(subdirectory -> walk(root, subdirectory))
+        .toList()
+        .forEach(result::addAll);
+    return result;
+  }
+
+  /**
+   * Walks a subdirectory of the scanned directory.
+   *
+   * @param root the scanned directory, which patterns are relative to
+   * @param start the subdirectory to walk
+   * @return the schema files found
+   */
+  private List<File> walk(Path root, Path start) {
+    List<File> result = new ArrayList<>();
+    try {
+      Files.walkFileTree(
+          start,
+          EnumSet.of(FileVisitOption.FOLLOW_LINKS),
+          Integer.MAX_VALUE,
+          new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+              return !dir.equals(start) && isExcluded(root, dir)
+                  ? FileVisitResult.SKIP_SUBTREE
+                  : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+              if (attributes.isRegularFile() && accept(root, file)) {
+                result.add(file.toFile());
+              }
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+              // unreadable entries and symbolic link cycles are skipped
+              return FileVisitResult.CONTINUE;
+            }
+          });
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return result;
+  }
+
+  private boolean accept(Path root, Path file) {
+    if (!SchemaFileService.isGraphqlFile(file.toFile()) || isExcluded(root, file)) {
+      return false;
+    }
+    return includes.isEmpty() || matches(includes, relativize(root, file));
+  }
+
+  private boolean isExcluded(Path root, Path path) {
+    return !excludes.isEmpty() && matches(excludes, relativize(root, path));
+  }
+
+  private static boolean matches(List<PathMatcher> matchers, Path path) {
+    for (PathMatcher matcher : matchers) {
+      if (matcher.matches(path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Path relativize(Path root, Path path) {
+    return Path.of(root.relativize(path).toString().replace(File.separatorChar, '/'));
+  }
+
+  /**
+   * Compiles glob patterns. A pattern starting with <code>**&#47;</code> also matches without that
+   * prefix, and for exclude patterns a pattern ending with {@code /**} also matches the directory
+   * itself, so the directory can be pruned.
+   *
+   * @param patterns the glob patterns
+   * @param directories true to also match the directories the patterns cover
+   * @return the path matchers
+   */
+  private static List<PathMatcher> matchers(Collection<String> patterns, boolean directories) {
+    Set<String> globs = new HashSet<>();
+    for (String pattern : patterns) {
+      String glob = pattern.trim().replace('\\', '/');
+      if (glob.isEmpty()) {
+        continue;
+      }
+      List<String> variants = new ArrayList<>(List.of(glob));
+      if (directories && glob.endsWith("/**")) {
+        variants.add(glob.substring(0, glob.length() - 3));
+      }
+      for (String variant : List.copyOf(variants)) {
+        if (variant.startsWith("**/")) {
+          variants.add(variant.substring(3));
+        }
+      }
+      globs.addAll(variants);
+    }
+    return globs.stream()
+        .map(glob -> FileSystems.getDefault().getPathMatcher("glob:" + glob))
+        .toList();
+  }
+}
@@ -1,20 +1,37 @@
 package io.github.deweyjose.graphqlcodegen.services;
 
+import io.github.deweyjose.graphqlcodegen.CodegenPhaseReport;
 import io.github.deweyjose.graphqlcodegen.Logger;
 import io.github.deweyjose.graphqlcodegen.parameters.IntrospectionRequest;
 import io.github.deweyjose.graphqlcodegen.services.RemoteSchemaService.IntrospectionOperation;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.SneakyThrows;
@@ -24,14 +41,51 @@ import org.apache.maven.artifact.Artifact;
 @Getter
 @Setter
 public class SchemaFileService {
+  /** The maximum number of remote schemas fetched concurrently. */
+  static final int MAX_CONCURRENT_FETCHES = 8;
+
+  /**
+   * Remote schema files saved by an execution, keyed by the cache scope and the request. Other
+   * executions copy the file instead of fetching the schema again. Only paths are cached, so no SDL
+   * is held in memory between executions.
+   */
+  static final ContentCache<Path> REMOTE_SCHEMAS = new ContentCache<>(4096, path -> 1);
+
   private final File outputDir;
   private final SchemaManifestService manifest;
   private final RemoteSchemaService remoteSchemaService;
   private final SchemaTransformationService schemaTransformationService;
 
+  /** The schema files to generate, in the order they were loaded. */
+  @Setter(AccessLevel.NONE)
   private Set<File> schemaPaths;
+
+  private Set<File> unchangedSchemaPaths = new LinkedHashSet<>();
+  private Set<String> unchangedTypes = new HashSet<>();
+  private Set<String> removedTypes = new HashSet<>();
   private List<File> schemaJarFilesFromDependencies;
 
+  /**
+   * Identifies the build remote schemas can be shared within, or null to fetch them on every
+   * execution. Executions with the same scope copy each other's remote schema files through {@link
+   * #REMOTE_SCHEMAS}.
+   */
+  private String remoteCacheScope;
+
+  /** The lock of the remote schemas, or null to fetch them on every build. */
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private SchemaLock schemaLock;
+
+  /** Whether remote schemas must be served from the {@link #schemaLock} without fetching them. */
+  private boolean offline;
+
+  /** Whether to fetch remote schemas again and update the {@link #schemaLock}. */
+  private boolean refreshRemoteSchemas;
+
+  private Map<String, File> schemaJars = new LinkedHashMap<>();
+  private boolean schemaJarsChanged = true;
+
   /**
    * Constructs a new SchemaFileService with the given output directory and manifest.
    *
@@ -61,19 +115,43 @@ public class SchemaFileService {
       SchemaManifestService manifest,
       RemoteSchemaService remoteSchemaService,
       SchemaTransformationService schemaTransformationService) {
-    this.schemaPaths = new HashSet<>();
+    this.schemaPaths = new LinkedHashSet<>();
     this.outputDir = outputDir;
     this.manifest = manifest;
     this.remoteSchemaService = remoteSchemaService;
     this.schemaTransformationService = schemaTransformationService;
   }
 
+  /**
+   * Sets the schema files to generate, keeping their iteration order.
+   *
+   * @param schemaPaths the schema files
+   */
+  public void setSchemaPaths(Collection<File> schemaPaths) {
+    this.schemaPaths = new LinkedHashSet<>(schemaPaths);
+  }
+
   /**
    * Loads the schema paths, expanding directories to include all GraphQL schema files within them.
    *
    * @param schemaPaths the collection of files or directories to load as schema paths
    */
   public void loadExpandedSchemaPaths(Collection<File> schemaPaths) {
+    loadExpandedSchemaPaths(schemaPaths, Collections.emptyList(), Collections.emptyList());
+  }
+
+  /**
+   * Loads the schema paths, expanding directories to the GraphQL schema files within them that
+   * match the include and exclude patterns (see {@link SchemaFileScanner}). Files listed directly
+   * are always loaded.
+   *
+   * @param schemaPaths the collection of files or directories to load as schema paths
+   * @param includes the glob patterns schema files in directories must match, or empty for all
+   * @param excludes the glob patterns of files and directories to skip in directories
+   */
+  public void loadExpandedSchemaPaths(
+      Collection<File> schemaPaths, Collection<String> includes, Collection<String> excludes) {
+    SchemaFileScanner scanner = new SchemaFileScanner(includes, excludes);
     setSchemaPaths(
         schemaPaths.stream()
             .map(
@@ -81,11 +159,11 @@ public class SchemaFileService {
                   if (path.isFile()) {
                     return Stream.of(path);
                   } else {
-                    return findGraphQLSFiles(path).stream();
+                    return scanner.scan(path).stream();
                   }
                 })
             .flatMap(stream -> stream)
-            .collect(Collectors.toSet()));
+            .collect(Collectors.toCollection(LinkedHashSet::new)));
   }
 
   /**
@@ -97,22 +175,19 @@ public class SchemaFileService {
    */
   public void loadSchemaJarFilesFromDependencies(
       Set<Artifact> artifacts, Set<String> schemaJarFilesFromDependencies) {
-    this.schemaJarFilesFromDependencies =
-        extractSchemaFilesFromDependencies(artifacts, schemaJarFilesFromDependencies);
+    this.schemaJars = findSchemaJars(artifacts, schemaJarFilesFromDependencies);
+    this.schemaJarFilesFromDependencies = List.copyOf(schemaJars.values());
   }
 
   /**
    * Loads remote schema URLs and saves them as files in the output directory, adding them to
-   * schemaPaths.
+   * schemaPaths. A schema the server reports as not modified since the last download is reused from
+   * the output directory.
    *
    * @param schemaUrls the list of schema URLs to load
    */
-  @SneakyThrows
   public void loadSchemaUrls(List<String> schemaUrls) {
-    for (String url : schemaUrls) {
-      String content = remoteSchemaService.getRemoteSchemaFile(url);
-      schemaPaths.add(saveUrlToFile(url, content));
-    }
+    loadRemoteSchemas(schemaUrls, Collections.emptyList());
   }
 
   /**
@@ -120,22 +195,236 @@ public class SchemaFileService {
    *
    * @param schemaUrls the collection of IntrospectionRequest objects to load
    */
-  @SneakyThrows
   public void loadIntrospectedSchemas(Collection<IntrospectionRequest> schemaUrls) {
-    for (IntrospectionRequest request : schemaUrls) {
-      String query = Optional.ofNullable(request.getQuery()).orElse(Constants.DEFAULT_QUERY);
-      String operationName =
-          Optional.ofNullable(request.getOperationName()).orElse(Constants.DEFAULT_OPERATION_NAME);
-      IntrospectionOperation operation =
-          IntrospectionOperation.builder().query(query).operationName(operationName).build();
-      String content =
-          remoteSchemaService.getIntrospectedSchemaFile(
-              request.getUrl(), operation, request.getHeaders());
-      String transformedContent = schemaTransformationService.transformSchema(content);
-      schemaPaths.add(saveUrlToFile(request.getUrl(), transformedContent));
+    loadRemoteSchemas(Collections.emptyList(), schemaUrls);
+  }
+
+  /**
+   * Locks remote schemas in the given lock file (see {@link SchemaLock}). A remote schema whose
+   * locked SDL is in the cache directory is then copied from the cache instead of being fetched,
+   * unless {@link #refreshRemoteSchemas} is set. Offline, a remote schema that is not locked or not
+   * cached fails the build.
+   *
+   * @param lockFile the lock file, created on the first build
+   * @param cacheDir the directory the SDL of locked remote schemas is cached in
+   */
+  public void useSchemaLock(File lockFile, File cacheDir) {
+    this.schemaLock = SchemaLock.load(lockFile, cacheDir);
+  }
+
+  /**
+   * Loads remote schema URLs and introspected schemas concurrently, using up to {@value
+   * #MAX_CONCURRENT_FETCHES} threads, and adds the saved files to schemaPaths in input order. The
+   * first failure cancels the remaining requests and is rethrown. With a {@link
+   * #useSchemaLock(File, File) schema lock}, locked remote schemas are served from its cache and
+   * the lock is updated once every remote schema is loaded.
+   *
+   * @param schemaUrls the list of schema URLs to load
+   * @param introspectionRequests the collection of IntrospectionRequest objects to load
+   */
+  @SneakyThrows
+  public void loadRemoteSchemas(
+      List<String> schemaUrls, Collection<IntrospectionRequest> introspectionRequests) {
+    List<Callable<File>> fetches = new ArrayList<>();
+    for (String url : schemaUrls) {
+      fetches.add(
+          () ->
+              locked(SchemaLock.urlKey(url), remoteSchemaFile(url), () -> downloadSchemaUrl(url)));
+    }
+    for (IntrospectionRequest request : introspectionRequests) {
+      IntrospectionOperation operation = introspectionOperation(request);
+      fetches.add(
+          () ->
+              locked(
+                  SchemaLock.introspectionKey(
+                      request.getUrl(), operation.getQuery(), operation.getOperationName()),
+                  remoteSchemaFile(request.getUrl()),
+                  () -> introspectSchema(request, operation)));
+    }
+    if (fetches.size() == 1) {
+      schemaPaths.add(fetches.get(0).call());
+    } else if (!fetches.isEmpty()) {
+      fetchConcurrently(fetches);
+    }
+    if (schemaLock != null) {
+      schemaLock.save();
     }
   }
 
+  /**
+   * Runs the fetches on up to {@value #MAX_CONCURRENT_FETCHES} threads and adds the saved files to
+   * schemaPaths in input order.
+   *
+   * @param fetches the fetches
+   */
+  @SneakyThrows
+  private void fetchConcurrently(List<Callable<File>> fetches) {
+    ExecutorService executor =
+        Executors.newFixedThreadPool(Math.min(fetches.size(), MAX_CONCURRENT_FETCHES));
+    try {
+      CompletionService<File> completionService = new ExecutorCompletionService<>(executor);
+      List<Future<File>> futures =
+          fetches.stream().map(CodegenPhaseReport::worker).map(completionService::submit).toList();
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          completionService.take().get();
+        } catch (ExecutionException e) {
+          throw e.getCause();
+        }
+      }
+      for (Future<File> future : futures) {
+        schemaPaths.add(future.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Loads a remote schema through the {@link #schemaLock}, if there is one: the locked SDL is
+   * copied from the cache when available, discarding the validators of an earlier download, and
+   * otherwise the schema is fetched and locked. Unless {@link #refreshRemoteSchemas} is set, a
+   * fetched schema must match its locked hash.
+   *
+   * @param key the lock key of the remote schema
+   * @param file the file in the output directory the schema is saved to
+   * @param fetch fetches the schema into the file
+   * @return the saved schema file
+   * @throws Exception if the schema cannot be fetched, is not locked and cached while offline, or
+   *     does not match its locked hash
+   */
+  private File locked(String key, File file, Callable<File> fetch) throws Exception {
+    if (schemaLock == null) {
+      return fetch.call();
+    }
+    if (!refreshRemoteSchemas) {
+      String content = schemaLock.cached(key);
+      if (content != null) {
+        if (GeneratedSourceService.write(file.toPath(), content, true)) {
+          remoteSchemaService.discardValidators(file);
+        }
+        return file;
+      }
+    }
+    if (offline) {
+      throw new IllegalStateException(
+          "Remote schema "
+              + key
+              + " is not locked or not in the schema cache, and cannot be fetched offline");
+    }
+    File fetched = fetch.call();
+    schemaLock.record(key, fetched, refreshRemoteSchemas);
+    return fetched;
+  }
+
+  /**
+   * Downloads a schema URL into the output directory. Within a {@link #remoteCacheScope}, a URL
+   * already downloaded by another execution is copied from that execution's file instead.
+   *
+   * @param url the schema URL
+   * @return the saved schema file
+   * @throws Exception if the schema cannot be downloaded or copied
+   */
+  private File downloadSchemaUrl(String url) throws Exception {
+    File file = remoteSchemaFile(url);
+    return shared(
+        ContentCache.key(remoteCacheScope, url),
+        file,
+        () -> remoteSchemaService.downloadRemoteSchemaFile(url, file).toPath());
+  }
+
+  /**
+   * Fetches a schema via introspection, streams it into the output directory and transforms it
+   * there. The schema file is only replaced if the transformed SDL differs from it, so an unchanged
+   * schema keeps its last-modified time and is not regenerated with {@code onlyGenerateChanged}.
+   * Within a {@link #remoteCacheScope}, the result of an identical request made by another
+   * execution is reused.
+   *
+   * @param request the introspection request
+   * @param operation the introspection operation of the request
+   * @return the saved schema file
+   * @throws Exception if the request fails or the result cannot be converted
+   */
+  private File introspectSchema(IntrospectionRequest request, IntrospectionOperation operation)
+      throws Exception {
+    File file = remoteSchemaFile(request.getUrl());
+    return shared(
+        ContentCache.key(
+            remoteCacheScope,
+            request.getUrl(),
+            operation.getQuery(),
+            operation.getOperationName(),
+            new TreeMap<>(
+                Optional.ofNullable(request.getHeaders()).orElse(Collections.emptyMap()))),
+        file,
+        () -> {
+          Path staged = file.toPath().resolveSibling(file.getName() + ".introspected");
+          try {
+            remoteSchemaService.downloadIntrospectedSchemaFile(
+                request.getUrl(), operation, request.getHeaders(), staged.toFile());
+            schemaTransformationService.transformSchemaFile(staged);
+            GeneratedSourceService.replace(staged, file.toPath());
+            return file.toPath();
+          } finally {
+            Files.deleteIfExists(staged);
+          }
+        });
+  }
+
+  /**
+   * Saves a remote schema to a file, fetching it unless another execution of the same {@link
+   * #remoteCacheScope} already saved it. That execution's file is then copied, replacing the file
+   * only if its content differs.
+   *
+   * @param key the cache key of the remote schema within the scope
+   * @param file the file to save the schema to
+   * @param fetch fetches the schema into the file and returns its path
+   * @return the saved schema file
+   * @throws Exception if the schema cannot be fetched or copied
+   */
+  private File shared(String key, File file, ContentCache.Loader<Path> fetch) throws Exception {
+    if (remoteCacheScope == null) {
+      fetch.load();
+      return file;
+    }
+    Path source = REMOTE_SCHEMAS.get(key, fetch);
+    if (source.equals(file.toPath())) {
+      return file;
+    }
+    if (!Files.isRegularFile(source)) {
+      // the other execution's output was cleaned, fetch the schema again
+      REMOTE_SCHEMAS.put(key, fetch.load());
+      return file;
+    }
+    Path staged = file.toPath().resolveSibling(file.getName() + ".shared");
+    try {
+      Files.createDirectories(staged.getParent());
+      Files.copy(source, staged, StandardCopyOption.REPLACE_EXISTING);
+      if (GeneratedSourceService.replace(staged, file.toPath())) {
+        remoteSchemaService.discardValidators(file);
+      }
+    } finally {
+      Files.deleteIfExists(staged);
+    }
+    return file;
+  }
+
+  /**
+   * Returns the introspection operation of a request, with the default query and operation name
+   * filled in.
+   *
+   * @param request the introspection request
+   * @return the introspection operation
+   */
+  private static IntrospectionOperation introspectionOperation(IntrospectionRequest request) {
+    return IntrospectionOperation.builder()
+        .query(Optional.ofNullable(request.getQuery()).orElse(Constants.DEFAULT_QUERY))
+        .operationName(
+            Optional.ofNullable(request.getOperationName())
+                .orElse(Constants.DEFAULT_OPERATION_NAME))
+        .build();
+  }
+
   /**
    * Checks if there are any schema files or schema jars to generate. Throws if none are found.
    *
@@ -151,12 +440,15 @@ public class SchemaFileService {
   }
 
   /**
-   * Returns true if there are no schema files or schema jars to process.
+   * Returns true if there are no schema files or changed schema jars to process, and no type was
+   * removed whose generated files need pruning.
    *
    * @return true if there is no work to do, false otherwise
    */
   public boolean noWorkToDo() {
-    return getSchemaPaths().isEmpty() && getSchemaJarFilesFromDependencies().isEmpty();
+    return getSchemaPaths().isEmpty()
+        && (getSchemaJarFilesFromDependencies().isEmpty() || !isSchemaJarsChanged())
+        && getRemovedTypes().isEmpty();
   }
 
   /** Syncs the manifest by writing the current state to disk. Prints stack trace on error. */
@@ -168,42 +460,112 @@ public class SchemaFileService {
     }
   }
 
-  /** Filters schemaPaths to only include files that have changed according to the manifest. */
+  /**
+   * Filters schemaPaths down to the files contributing to changed types and their dependents (see
+   * {@link SchemaDependencyGraph}). Only the types of files the manifest reports as changed, or
+   * that those files contributed to before, are rehashed; a type is changed when its hash differs
+   * from the recorded one. The remaining files are kept as {@link #unchangedSchemaPaths unchanged
+   * schema paths}: they are still needed in context, but the types only they contribute to,
+   * reported by {@link #unchangedTypes}, do not need to be regenerated. Types that are no longer
+   * defined anywhere are reported by {@link #removedTypes}. A change to the schema jars from
+   * dependencies regenerates every file, and unchanged jars are reported by {@link
+   * #schemaJarsChanged}.
+   */
   public void filterChangedSchemaFiles() {
-    manifest.setFiles(new HashSet<>(schemaPaths));
+    Set<File> all = new LinkedHashSet<>(schemaPaths);
+    manifest.setFiles(all);
+    manifest.setJars(schemaJars);
     Set<File> changed = new HashSet<>(schemaPaths);
     changed.retainAll(manifest.getChangedFiles());
-    setSchemaPaths(changed);
+    setSchemaJarsChanged(manifest.hasChangedJars());
+
+    Set<String> removedTypes = manifest.getRemovedFileTypes();
+    Set<File> affected = changed;
+    Set<String> unchanged = new HashSet<>();
+    Set<String> removed = new HashSet<>();
+    if (!changed.isEmpty() || !removedTypes.isEmpty()) {
+      SchemaDependencyGraph graph = SchemaDependencyGraph.of(all);
+      if (graph.isComplete() && changed.stream().noneMatch(graph::definesSchema)) {
+        Set<String> candidates = new HashSet<>(removedTypes);
+        for (File file : changed) {
+          candidates.addAll(graph.getContributions(file));
+          candidates.addAll(manifest.getRecordedTypes(file));
+        }
+        Map<String, String> hashes = new HashMap<>();
+        Set<String> changedTypes = new HashSet<>(candidates);
+        changedTypes.removeAll(graph.getTypes());
+        removed.addAll(changedTypes);
+        for (String type : graph.getTypes()) {
+          String recordedHash = manifest.getRecordedTypeHash(type);
+          String hash =
+              candidates.contains(type) || recordedHash == null
+                  ? graph.typeHash(type)
+                  : recordedHash;
+          hashes.put(type, hash);
+          if (!hash.equals(recordedHash)) {
+            changedTypes.add(type);
+          }
+        }
+        manifest.setTypeHashes(hashes);
+
+        Set<String> affectedTypes = graph.withDependents(changedTypes);
+        affected = graph.getContributors(affectedTypes);
+        affected.retainAll(all);
+        // files without any type definition cannot be narrowed down by type
+        changed.stream()
+            .filter(file -> graph.getContributions(file).isEmpty())
+            .forEach(affected::add);
+
+        unchanged.addAll(graph.getTypes());
+        unchanged.removeAll(affectedTypes);
+      } else {
+        affected = all;
+        if (graph.isComplete()) {
+          manifest.setTypeHashes(
+              graph.getTypes().stream().collect(Collectors.toMap(type -> type, graph::typeHash)));
+        }
+      }
+      manifest.setFileTypes(graph.getContributions());
+    }
+
+    // keep the load order of the schema files in both subsets
+    Set<File> affectedPaths = new LinkedHashSet<>();
+    Set<File> unchangedPaths = new LinkedHashSet<>();
+    for (File file : all) {
+      if (affected.contains(file)) {
+        affectedPaths.add(file);
+      } else {
+        unchangedPaths.add(file);
+      }
+    }
+    setSchemaPaths(affectedPaths);
+    setUnchangedSchemaPaths(unchangedPaths);
+    setUnchangedTypes(unchanged);
+    setRemovedTypes(removed);
   }
 
   /**
-   * Fetches the contents of a remote schema from the given URL as a string.
+   * Returns every schema file code generation needs in context: the files to generate and the
+   * unchanged files filtered out by {@link #filterChangedSchemaFiles()}.
    *
-   * @param url the URL to fetch the schema from
-   * @return the schema SDL as a string
-   * @throws IOException if an I/O error occurs
-   * @throws InterruptedException if the thread is interrupted
+   * @return the schema files to parse
    */
-  public String fetchSchema(String url) throws IOException, InterruptedException {
-    return remoteSchemaService.getRemoteSchemaFile(url);
+  public Set<File> getContextSchemaPaths() {
+    Set<File> context = new LinkedHashSet<>(schemaPaths);
+    context.addAll(unchangedSchemaPaths);
+    return context;
   }
 
   /**
-   * Downloads a remote schema from the given URL and saves it as a file in the output directory.
+   * Fetches the contents of a remote schema from the given URL as a string.
    *
-   * @param url the URL to download the schema from
-   * @param outputDir the output directory to save the file in
-   * @return the File object representing the saved schema
+   * @param url the URL to fetch the schema from
+   * @return the schema SDL as a string
    * @throws IOException if an I/O error occurs
    * @throws InterruptedException if the thread is interrupted
    */
-  private File saveUrlToFile(String url, String content) throws IOException, InterruptedException {
-    String fileName =
-        "remote-schemas/" + Base64.getEncoder().encodeToString(url.getBytes()) + ".graphqls";
-    File outFile = new File(outputDir, fileName);
-    Files.createDirectories(outFile.getParentFile().toPath());
-    Files.writeString(outFile.toPath(), content);
-    return outFile;
+  public String fetchSchema(String url) throws IOException, InterruptedException {
+    return remoteSchemaService.getRemoteSchemaFile(url);
   }
 
   /**
@@ -213,21 +575,7 @@ public class SchemaFileService {
    * @return a set of GraphQL schema files found
    */
   public static Set<File> findGraphQLSFiles(File directory) {
-    Set<File> result = new HashSet<>();
-
-    File[] contents = directory.listFiles();
-    if (contents != null) {
-      for (File content : contents) {
-        if (content.isFile() && isGraphqlFile(content)) {
-          result.add(content);
-        } else if (content.isDirectory()) {
-          Set<File> subdirectoryGraphQLSFiles = findGraphQLSFiles(content);
-          result.addAll(subdirectoryGraphQLSFiles);
-        }
-      }
-    }
-
-    return result;
+    return new SchemaFileScanner(Collections.emptyList(), Collections.emptyList()).scan(directory);
   }
 
   /**
@@ -252,14 +600,42 @@ public class SchemaFileService {
    */
   public static List<File> extractSchemaFilesFromDependencies(
       Set<Artifact> dependencyArtifacts, Collection<String> schemaJarFilesFromDependencies) {
-    return schemaJarFilesFromDependencies.stream()
+    return List.copyOf(
+        findSchemaJars(dependencyArtifacts, schemaJarFilesFromDependencies).values());
+  }
+
+  /**
+   * Returns the file in the output directory a remote schema is saved to.
+   *
+   * @param url the URL of the remote schema
+   * @return the schema file
+   */
+  private File remoteSchemaFile(String url) {
+    return new File(
+        outputDir,
+        "remote-schemas/" + Base64.getEncoder().encodeToString(url.getBytes()) + ".graphqls");
+  }
+
+  /**
+   * Finds the schema jars among the given dependency artifacts, keyed by the coordinates they were
+   * configured with.
+   *
+   * @param dependencyArtifacts the set of Maven dependency artifacts
+   * @param schemaJarFilesFromDependencies the collection of dependency coordinates to match
+   * @return the schema jars keyed by their groupId:artifactId:version coordinates, in configuration
+   *     order
+   */
+  private static Map<String, File> findSchemaJars(
+      Set<Artifact> dependencyArtifacts, Collection<String> schemaJarFilesFromDependencies) {
+    Map<String, File> jars = new LinkedHashMap<>();
+    schemaJarFilesFromDependencies.stream()
         .map(String::trim)
         .filter(jarDep -> !jarDep.isEmpty())
-        .map(jarDep -> findArtifactFromDependencies(dependencyArtifacts, jarDep))
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .map(Artifact::getFile)
-        .toList();
+        .forEach(
+            jarDep ->
+                findArtifactFromDependencies(dependencyArtifacts, jarDep)
+                    .ifPresent(artifact -> jars.put(jarDep, artifact.getFile())));
+    return jars;
   }
 
   /**
@@ -0,0 +1,200 @@
+package io.github.deweyjose.graphqlcodegen.services;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.SneakyThrows;
+import nu.studer.java.util.OrderedProperties;
+import nu.studer.java.util.OrderedProperties.OrderedPropertiesBuilder;
+
+/**
+ * Lockfile of the remote schemas a build uses, meant to be committed with the project.
+ *
+ * <p>For each schema URL and introspection request, the lock records the SHA-256 of the SDL the
+ * build generated from. The SDL itself is kept in a cache directory, one {@code <sha256>.graphqls}
+ * file per content, so it survives a {@code clean} and can be shared by every project using the
+ * same cache. A remote schema whose locked content is in the cache is not fetched. One that is
+ * fetched, for instance on a build agent with an empty cache, must match its locked hash unless the
+ * lock is being updated. Only the remote schemas resolved during a build are written back, so
+ * removed ones drop out of the lock.
+ */
+class SchemaLock {
+  static final int LOCK_VERSION = 1;
+
+  private static final String VERSION_KEY = "version";
+  private static final String URL_PREFIX = "url.";
+  private static final String INTROSPECTION_PREFIX = "introspection.";
+  private static final String CACHE_SUFFIX = ".graphqls";
+
+  private final File lockFile;
+  private final File cacheDir;
+  private final Map<String, String> recorded = new HashMap<>();
+  private final Map<String, String> current = new TreeMap<>();
+
+  private SchemaLock(File lockFile, File cacheDir) {
+    this.lockFile = lockFile;
+    this.cacheDir = cacheDir;
+  }
+
+  /**
+   * Loads the lock, or starts an empty one if it does not exist or was written by another format
+   * version.
+   *
+   * @param lockFile the lock file
+   * @param cacheDir the directory the locked schemas are cached in
+   * @return the lock
+   */
+  @SneakyThrows
+  static SchemaLock load(File lockFile, File cacheDir) {
+    SchemaLock lock = new SchemaLock(lockFile, cacheDir);
+    if (!lockFile.isFile()) {
+      return lock;
+    }
+    OrderedProperties properties =
+        new OrderedPropertiesBuilder().withSuppressDateInComment(true).build();
+    try (FileInputStream fis = new FileInputStream(lockFile)) {
+      properties.load(fis);
+    }
+    if (!String.valueOf(LOCK_VERSION).equals(properties.getProperty(VERSION_KEY))) {
+      return lock;
+    }
+    for (String key : properties.stringPropertyNames()) {
+      if (key.startsWith(URL_PREFIX) || key.startsWith(INTROSPECTION_PREFIX)) {
+        lock.recorded.put(key, properties.getProperty(key));
+      }
+    }
+    return lock;
+  }
+
+  /**
+   * Returns the lock key of a schema URL.
+   *
+   * @param url the schema URL
+   * @return the lock key
+   */
+  static String urlKey(String url) {
+    return URL_PREFIX + url;
+  }
+
+  /**
+   * Returns the lock key of an introspection request. Headers are left out, since they usually
+   * carry credentials, but a different query or operation name is a different schema.
+   *
+   * @param url the GraphQL endpoint URL
+   * @param query the introspection query
+   * @param operationName the operation name
+   * @return the lock key
+   */
+  static String introspectionKey(String url, String query, String operationName) {
+    return INTROSPECTION_PREFIX
+        + url
+        + "#"
+        + operationName
+        + "#"
+        + sha256(query.getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+  }
+
+  /**
+   * Returns the cached SDL of a locked remote schema.
+   *
+   * @param key the lock key
+   * @return the SDL, or null if the schema is not locked or its locked content is not cached
+   */
+  @SneakyThrows
+  String cached(String key) {
+    String hash = recorded.get(key);
+    if (hash == null) {
+      return null;
+    }
+    Path path = cacheFile(hash);
+    if (!Files.isRegularFile(path)) {
+      return null;
+    }
+    byte[] content = Files.readAllBytes(path);
+    if (!hash.equals(sha256(content))) {
+      return null;
+    }
+    synchronized (current) {
+      current.put(key, hash);
+    }
+    return new String(content, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Locks a fetched remote schema and adds its SDL to the cache.
+   *
+   * @param key the lock key
+   * @param schemaFile the file the SDL was saved to
+   * @param update true to replace a different locked hash, false to fail on one
+   * @throws IllegalStateException if the schema is locked to other content and not updated
+   */
+  @SneakyThrows
+  void record(String key, File schemaFile, boolean update) {
+    byte[] content = Files.readAllBytes(schemaFile.toPath());
+    String hash = sha256(content);
+    String lockedHash = recorded.get(key);
+    if (!update && lockedHash != null && !lockedHash.equals(hash)) {
+      throw new IllegalStateException(
+          "Remote schema "
+              + key
+              + " has changed: the lock file "
+              + lockFile
+              + " has sha256 "
+              + lockedHash
+              + " but the fetched schema has sha256 "
+              + hash
+              + ". Run with -DrefreshSchemaLock or -U to update the lock");
+    }
+    Path path = cacheFile(hash);
+    if (!Files.isRegularFile(path)) {
+      Files.createDirectories(path.getParent());
+      Path tempPath = Files.createTempFile(path.getParent(), hash, ".tmp");
+      try {
+        Files.write(tempPath, content);
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+        Files.deleteIfExists(tempPath);
+      }
+    }
+    synchronized (current) {
+      current.put(key, hash);
+    }
+  }
+
+  /** Writes the lock if a remote schema was added, changed or removed. */
+  @SneakyThrows
+  void save() {
+    synchronized (current) {
+      if (current.equals(recorded) && lockFile.isFile()) {
+        return;
+      }
+      OrderedProperties properties =
+          new OrderedPropertiesBuilder().withSuppressDateInComment(true).build();
+      properties.setProperty(VERSION_KEY, String.valueOf(LOCK_VERSION));
+      current.forEach(properties::setProperty);
+      File parent = lockFile.getAbsoluteFile().getParentFile();
+      parent.mkdirs();
+      try (FileOutputStream fos = new FileOutputStream(lockFile)) {
+        properties.store(fos, "GraphQL Codegen Schema Lock");
+      }
+    }
+  }
+
+  private Path cacheFile(String hash) {
+    return new File(cacheDir, hash + CACHE_SUFFIX).toPath();
+  }
+
+  @SneakyThrows
+  private static String sha256(byte[] content) {
+    return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+  }
+}
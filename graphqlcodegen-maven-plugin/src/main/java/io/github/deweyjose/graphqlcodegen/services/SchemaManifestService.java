@@ -4,22 +4,137 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import nu.studer.java.util.OrderedProperties;
 import nu.studer.java.util.OrderedProperties.OrderedPropertiesBuilder;
 
-/** Manages a manifest of GraphQL schema files and their checksums for change detection. */
+/**
+ * Manages a manifest of GraphQL schema files and their checksums for change detection.
+ *
+ * <p>The manifest is versioned. Version 1 manifests (written before the version key existed) map
+ * each project-relative path straight to an unpadded MD5 hex digest. Newer manifests record the
+ * format version and the digest algorithm, and prefix file entries with {@value #FILE_PREFIX}.
+ * Older manifests are read using their own format and algorithm, so upgrading the plugin or
+ * changing {@code schemaManifestHashAlgorithm} does not mark every file as changed; the next sync
+ * rewrites the manifest in the current format.
+ *
+ * <p>Since version 3 each file entry also records the file size and last-modified time the checksum
+ * was computed from ({@code checksum,size,lastModified}). A file whose stat data still matches is
+ * treated as unchanged without being read, so a no-op build costs one stat call per file.
+ *
+ * <p>The manifest can also record a fingerprint of the code generation configuration under {@value
+ * #CONFIG_KEY}. When a fingerprint is set and differs from the recorded one, every file is reported
+ * as changed.
+ *
+ * <p>For incremental generation the manifest also records, under {@value #TYPES_PREFIX}, the type
+ * names each file contributed to when it was last synced (see {@link SchemaDependencyGraph}). A
+ * changed file may no longer mention a type it used to extend, so the types it previously
+ * contributed to are regenerated as well. It also records a hash of each type's definitions under
+ * {@value #HASH_PREFIX}, so an edit to one type of a large schema file only regenerates that type
+ * and its dependents.
+ *
+ * <p>Schema jars from dependencies are recorded under {@value #JAR_PREFIX} by their coordinates,
+ * with a checksum of the jar's schema entries and type mappings, computed from the CRC-32 and size
+ * in the jar's central directory, plus the jar's size and last-modified time. A jar whose stat data
+ * matches is not opened. Any change to the schema jars marks every file as changed.
+ *
+ * <p>Finally, the manifest records every generated file under {@value #OUTPUT_PREFIX}, mapped to
+ * the type it was generated for, so files that are no longer generated can be pruned.
+ */
 @Slf4j
 public class SchemaManifestService {
+  /** The manifest format version written by {@link #syncManifest()}. */
+  public static final int MANIFEST_VERSION = 3;
+
+  /** The digest algorithm used when none is configured. */
+  public static final String DEFAULT_ALGORITHM = "SHA-256";
+
+  /** The digest algorithm implied by unversioned (version 1) manifests. */
+  static final String LEGACY_ALGORITHM = "MD5";
+
+  static final String VERSION_KEY = "manifest.version";
+  static final String ALGORITHM_KEY = "manifest.algorithm";
+  static final String CONFIG_KEY = "manifest.config";
+  static final String FILE_PREFIX = "file.";
+  static final String TYPES_PREFIX = "types.";
+  static final String HASH_PREFIX = "hash.";
+  static final String OUTPUT_PREFIX = "output.";
+  static final String JAR_PREFIX = "jar.";
+
+  /** The jar entry holding type mappings, read by codegen from schema jars. */
+  static final String JAR_TYPE_MAPPINGS_ENTRY = "META-INF/dgs.codegen.typemappings";
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
   private Set<File> files;
   private final File manifestPath;
   private final File projectPath;
+  private final String algorithm;
+  private String configFingerprint;
+  private final Map<File, Entry> entries = new ConcurrentHashMap<>();
+  private final Map<File, Set<String>> fileTypes = new ConcurrentHashMap<>();
+  private Map<String, String> typeHashes;
+  private Map<File, String> outputs;
+  private Map<String, File> jars = Collections.emptyMap();
+  private final Map<String, Entry> jarEntries = new ConcurrentHashMap<>();
+  private boolean jarsChanged;
+  private OrderedProperties recorded;
+  private boolean configChanged;
+
+  /**
+   * A file entry in the manifest: the checksum and the stat data it was computed from. Entries
+   * written before version 3 carry only a checksum, and their size and last-modified time are
+   * {@value #UNKNOWN}.
+   *
+   * @param checksum the file checksum as a hex string
+   * @param size the file size in bytes
+   * @param lastModified the file last-modified time in epoch milliseconds
+   */
+  record Entry(String checksum, long size, long lastModified) {
+    static final long UNKNOWN = -1;
+
+    Entry(String checksum, BasicFileAttributes attributes) {
+      this(checksum, attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+
+    static Entry parse(String value) {
+      String[] parts = value.split(",");
+      if (parts.length < 3) {
+        return new Entry(value, UNKNOWN, UNKNOWN);
+      }
+      return new Entry(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+    }
+
+    boolean matches(BasicFileAttributes attributes) {
+      return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+    }
+
+    String format() {
+      return checksum + "," + size + "," + lastModified;
+    }
+  }
 
   /**
    * Constructs a SchemaFileManifest with a set of files, manifest path, and project path.
@@ -29,9 +144,24 @@ public class SchemaManifestService {
    * @param projectPath the project base directory
    */
   public SchemaManifestService(Set<File> files, File manifestPath, File projectPath) {
+    this(files, manifestPath, projectPath, DEFAULT_ALGORITHM);
+  }
+
+  /**
+   * Constructs a SchemaFileManifest with a set of files, manifest path, project path, and digest
+   * algorithm.
+   *
+   * @param files the set of schema files to track
+   * @param manifestPath the manifest file path
+   * @param projectPath the project base directory
+   * @param algorithm the {@link MessageDigest} algorithm used to checksum schema files
+   */
+  public SchemaManifestService(
+      Set<File> files, File manifestPath, File projectPath, String algorithm) {
     this.files = files;
     this.manifestPath = manifestPath;
     this.projectPath = projectPath;
+    this.algorithm = checkAlgorithm(algorithm);
   }
 
   /**
@@ -41,22 +171,43 @@ public class SchemaManifestService {
    * @param projectPath the project base directory
    */
   public SchemaManifestService(File manifestDir, File projectPath) {
+    this(manifestDir, projectPath, DEFAULT_ALGORITHM);
+  }
+
+  /**
+   * Constructs a SchemaFileManifest with a manifest path, project path, and digest algorithm.
+   *
+   * @param manifestDir the directory where the manifest file will be created
+   * @param projectPath the project base directory
+   * @param algorithm the {@link MessageDigest} algorithm used to checksum schema files
+   */
+  public SchemaManifestService(File manifestDir, File projectPath, String algorithm) {
     this.manifestPath = new File(manifestDir, "schema-manifest.props");
     this.projectPath = projectPath;
+    this.algorithm = checkAlgorithm(algorithm);
   }
 
   /**
-   * Generates an MD5 checksum for the given file.
+   * Generates an MD5 checksum for the given file in the unpadded hex form used by version 1
+   * manifests.
    *
    * @param path the file to checksum
    * @return the checksum as a hex string
    */
-  @SneakyThrows
   public static String generateChecksum(File path) {
-    byte[] data = Files.readAllBytes(Paths.get(path.toURI()));
-    byte[] hash = MessageDigest.getInstance("MD5").digest(data);
-    String checksum = new BigInteger(1, hash).toString(16);
-    return checksum;
+    return new BigInteger(1, digest(path, LEGACY_ALGORITHM)).toString(16);
+  }
+
+  /**
+   * Generates a checksum for the given file with the given algorithm. The file is streamed through
+   * a fixed-size buffer, so memory use does not grow with the file size.
+   *
+   * @param path the file to checksum
+   * @param algorithm the {@link MessageDigest} algorithm to use
+   * @return the checksum as a zero-padded lowercase hex string
+   */
+  public static String generateChecksum(File path, String algorithm) {
+    return HexFormat.of().formatHex(digest(path, algorithm));
   }
 
   /**
@@ -68,25 +219,210 @@ public class SchemaManifestService {
     this.files = files;
   }
 
+  /**
+   * Sets the fingerprint of the code generation configuration. When set, a fingerprint that differs
+   * from the one recorded in the manifest marks every file as changed, and {@link #syncManifest()}
+   * records the new fingerprint.
+   *
+   * @param configFingerprint the configuration fingerprint, or null to ignore configuration changes
+   */
+  public void setConfigFingerprint(String configFingerprint) {
+    this.configFingerprint = configFingerprint;
+  }
+
+  /**
+   * Sets the type names each file contributes to, recorded by {@link #syncManifest()}. Files
+   * without an entry keep the types recorded by the previous sync.
+   *
+   * @param fileTypes the contributed type names keyed by file
+   */
+  public void setFileTypes(Map<File, Set<String>> fileTypes) {
+    this.fileTypes.putAll(fileTypes);
+  }
+
+  /**
+   * Returns the type names a file contributed to when the manifest was last synced. Only available
+   * after {@link #getChangedFiles()} has loaded the manifest.
+   *
+   * @param file the schema file
+   * @return the recorded type names, empty if none were recorded
+   */
+  public Set<String> getRecordedTypes(File file) {
+    String value =
+        recorded == null ? null : recorded.getProperty(TYPES_PREFIX + relativizeToProject(file));
+    if (value == null || value.isEmpty()) {
+      return Collections.emptySet();
+    }
+    return Set.of(value.split(","));
+  }
+
+  /**
+   * Sets the definition hash of every type of the schema, recorded by {@link #syncManifest()} in
+   * place of the previously recorded hashes. When never set, the previously recorded hashes are
+   * kept.
+   *
+   * @param typeHashes the type definition hashes keyed by type name
+   */
+  public void setTypeHashes(Map<String, String> typeHashes) {
+    this.typeHashes = typeHashes;
+  }
+
+  /**
+   * Returns the definition hash recorded for a type when the manifest was last synced. Only
+   * available after {@link #getChangedFiles()} has loaded the manifest.
+   *
+   * @param type the type name
+   * @return the recorded hash, or null if none was recorded or the configuration or schema jars
+   *     have changed
+   */
+  public String getRecordedTypeHash(String type) {
+    return recorded == null || configChanged || jarsChanged
+        ? null
+        : recorded.getProperty(HASH_PREFIX + type);
+  }
+
+  /**
+   * Returns the type names recorded for files that were tracked when the manifest was last synced
+   * but are no longer tracked. Only available after {@link #getChangedFiles()} has loaded the
+   * manifest.
+   *
+   * @return the type names contributed by removed files
+   */
+  public Set<String> getRemovedFileTypes() {
+    if (recorded == null) {
+      return Collections.emptySet();
+    }
+    Set<String> tracked =
+        files.stream()
+            .map(file -> TYPES_PREFIX + relativizeToProject(file))
+            .collect(Collectors.toSet());
+    Set<String> types = new HashSet<>();
+    for (String key : recorded.stringPropertyNames()) {
+      String value = recorded.getProperty(key);
+      if (key.startsWith(TYPES_PREFIX) && !tracked.contains(key) && !value.isEmpty()) {
+        types.addAll(Arrays.asList(value.split(",")));
+      }
+    }
+    return types;
+  }
+
+  /**
+   * Sets the files generated by the current build, recorded by {@link #syncManifest()} in place of
+   * the previously recorded outputs. When never set, the previously recorded outputs are kept.
+   *
+   * @param outputs the generated files mapped to the type they were generated for
+   */
+  public void setOutputs(Map<File, String> outputs) {
+    this.outputs = outputs;
+  }
+
+  /**
+   * Returns the generated files recorded when the manifest was last synced. Only available after
+   * {@link #getChangedFiles()} has loaded the manifest.
+   *
+   * @return the recorded generated files mapped to the type they were generated for
+   */
+  public Map<File, String> getRecordedOutputs() {
+    Map<File, String> result = new TreeMap<>();
+    if (recorded != null) {
+      for (String key : recorded.stringPropertyNames()) {
+        if (key.startsWith(OUTPUT_PREFIX)) {
+          result.put(
+              projectRoot().resolve(key.substring(OUTPUT_PREFIX.length())).normalize().toFile(),
+              recorded.getProperty(key));
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Sets the schema jars from dependencies to track.
+   *
+   * @param jars the schema jars keyed by their groupId:artifactId:version coordinates
+   */
+  public void setJars(Map<String, File> jars) {
+    this.jars = jars;
+  }
+
+  /**
+   * Returns true if a schema jar was added, removed or changed since the manifest was last synced.
+   * Only available after {@link #getChangedFiles()} has loaded the manifest.
+   *
+   * @return true if the schema jars have changed
+   */
+  public boolean hasChangedJars() {
+    return jarsChanged;
+  }
+
+  /**
+   * Computes a checksum of the schema content of a jar: the name, CRC-32 and size of every schema
+   * entry and of the type mappings entry, in name order. These are read from the jar's central
+   * directory, so no entry is decompressed, and rebuilding a jar with identical schemas does not
+   * change the checksum.
+   *
+   * @param jar the jar file
+   * @return the checksum as a SHA-256 hex string
+   */
+  @SneakyThrows
+  public static String generateJarChecksum(File jar) {
+    MessageDigest digest = MessageDigest.getInstance(DEFAULT_ALGORITHM);
+    try (ZipFile zipFile = new ZipFile(jar)) {
+      zipFile.stream()
+          .filter(
+              entry ->
+                  !entry.isDirectory()
+                      && (SchemaFileService.isGraphqlFile(new File(entry.getName()))
+                          || entry.getName().equals(JAR_TYPE_MAPPINGS_ENTRY)))
+          .sorted(Comparator.comparing(ZipEntry::getName))
+          .forEach(
+              entry ->
+                  digest.update(
+                      (entry.getName() + ":" + entry.getCrc() + ":" + entry.getSize() + "\n")
+                          .getBytes(StandardCharsets.UTF_8)));
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
   /**
    * Computes the set of files that have changed or are new and need to trigger code generation.
    *
+   * <p>Files whose size and last-modified time match the manifest are not read; the rest are
+   * checksummed in parallel.
+   *
    * @return a set of changed or new files
    */
   public Set<File> getChangedFiles() {
-    Set<File> changed = new HashSet<>();
     OrderedProperties manifest = loadManifest();
-    for (File file : files) {
-      String oldChecksum = manifest.getProperty(relativizeToProject(file));
-      if (oldChecksum == null) {
-        log.info("{} is new, will generate code", file.getName());
-      } else if (!oldChecksum.equals(generateChecksum(file))) {
-        log.info("{} has changed, will generate code", file.getName());
-      } else {
-        log.info("{} has not changed, will not generate code", file.getName());
-        continue;
-      }
-      changed.add(file);
+    recorded = manifest;
+    int version = manifestVersion(manifest);
+    String recordedAlgorithm =
+        version < 2 ? LEGACY_ALGORITHM : manifest.getProperty(ALGORITHM_KEY, DEFAULT_ALGORITHM);
+    if (!manifest.isEmpty()
+        && (version != MANIFEST_VERSION || !recordedAlgorithm.equals(algorithm))) {
+      log.info(
+          "migrating schema manifest from version {} ({}) to version {} ({})",
+          version,
+          recordedAlgorithm,
+          MANIFEST_VERSION,
+          algorithm);
+    }
+
+    Set<File> changed =
+        files.parallelStream()
+            .filter(file -> hasChanged(file, manifest, version, recordedAlgorithm))
+            .collect(Collectors.toSet());
+
+    configChanged =
+        configFingerprint != null && !configFingerprint.equals(manifest.getProperty(CONFIG_KEY));
+    jarsChanged = haveJarsChanged(manifest);
+    if (configChanged) {
+      log.info("code generation configuration has changed, will generate code for all files");
+      return new HashSet<>(files);
+    }
+    if (jarsChanged) {
+      log.info("schema jars have changed, will generate code for all files");
+      return new HashSet<>(files);
     }
     return changed;
   }
@@ -94,10 +430,67 @@ public class SchemaManifestService {
   /** Syncs the manifest with the files. */
   @SneakyThrows
   public void syncManifest() {
+    Map<String, String> current =
+        files.parallelStream()
+            .collect(
+                Collectors.toConcurrentMap(
+                    this::relativizeToProject, file -> entry(file, stat(file)).format()));
+
     OrderedProperties manifest =
         new OrderedPropertiesBuilder().withSuppressDateInComment(true).build();
-    for (File file : files) {
-      manifest.setProperty(relativizeToProject(file), generateChecksum(file));
+    manifest.setProperty(VERSION_KEY, String.valueOf(MANIFEST_VERSION));
+    manifest.setProperty(ALGORITHM_KEY, algorithm);
+    if (configFingerprint != null) {
+      manifest.setProperty(CONFIG_KEY, configFingerprint);
+    }
+    current.entrySet().stream()
+        .sorted(Map.Entry.comparingByKey())
+        .forEach(entry -> manifest.setProperty(FILE_PREFIX + entry.getKey(), entry.getValue()));
+    new TreeMap<>(jars)
+        .forEach(
+            (coordinates, jar) ->
+                manifest.setProperty(
+                    JAR_PREFIX + coordinates,
+                    jarEntries.computeIfAbsent(coordinates, k -> jarEntry(jar, null)).format()));
+    files.stream()
+        .sorted()
+        .forEach(
+            file -> {
+              String key = TYPES_PREFIX + relativizeToProject(file);
+              Set<String> types = fileTypes.get(file);
+              String value =
+                  types != null
+                      ? types.stream().sorted().collect(Collectors.joining(","))
+                      : recorded == null ? null : recorded.getProperty(key);
+              if (value != null) {
+                manifest.setProperty(key, value);
+              }
+            });
+    if (typeHashes != null) {
+      new TreeMap<>(typeHashes)
+          .forEach((type, hash) -> manifest.setProperty(HASH_PREFIX + type, hash));
+    } else if (recorded != null) {
+      recorded.stringPropertyNames().stream()
+          .filter(key -> key.startsWith(HASH_PREFIX))
+          .sorted()
+          .forEach(key -> manifest.setProperty(key, recorded.getProperty(key)));
+    }
+    if (outputs != null) {
+      outputs.entrySet().stream()
+          .map(
+              entry ->
+                  Map.entry(
+                      projectRoot()
+                          .relativize(entry.getKey().toPath().toAbsolutePath().normalize())
+                          .toString(),
+                      entry.getValue()))
+          .sorted(Map.Entry.comparingByKey())
+          .forEach(entry -> manifest.setProperty(OUTPUT_PREFIX + entry.getKey(), entry.getValue()));
+    } else if (recorded != null) {
+      recorded.stringPropertyNames().stream()
+          .filter(key -> key.startsWith(OUTPUT_PREFIX))
+          .sorted()
+          .forEach(key -> manifest.setProperty(key, recorded.getProperty(key)));
     }
 
     if (!manifestPath.exists()) {
@@ -110,6 +503,124 @@ public class SchemaManifestService {
     }
   }
 
+  /**
+   * Compares a file against its manifest entry. A file whose size and last-modified time match the
+   * entry is unchanged; otherwise it is hashed with the algorithm the manifest was written with.
+   *
+   * @param file the file to check
+   * @param manifest the loaded manifest
+   * @param version the manifest format version
+   * @param recordedAlgorithm the digest algorithm the manifest was written with
+   * @return true if the file is new or its checksum differs
+   */
+  private boolean hasChanged(
+      File file, OrderedProperties manifest, int version, String recordedAlgorithm) {
+    String key = relativizeToProject(file);
+    String value = manifest.getProperty(version < 2 ? key : FILE_PREFIX + key);
+    if (value == null) {
+      log.info("{} is new, will generate code", file.getName());
+      return true;
+    }
+
+    Entry oldEntry = Entry.parse(value);
+    BasicFileAttributes attributes = stat(file);
+    if (oldEntry.matches(attributes)) {
+      if (recordedAlgorithm.equals(algorithm)) {
+        entries.put(file, oldEntry);
+      }
+      log.info("{} has not changed, will not generate code", file.getName());
+      return false;
+    }
+
+    String newChecksum;
+    if (version < 2) {
+      newChecksum = generateChecksum(file);
+    } else if (recordedAlgorithm.equals(algorithm)) {
+      newChecksum = entry(file, attributes).checksum();
+    } else {
+      newChecksum = generateChecksum(file, recordedAlgorithm);
+    }
+
+    if (!oldEntry.checksum().equals(newChecksum)) {
+      log.info("{} has changed, will generate code", file.getName());
+      return true;
+    }
+    log.info("{} has not changed, will not generate code", file.getName());
+    return false;
+  }
+
+  /**
+   * Compares the schema jars against their manifest entries. A jar whose size and last-modified
+   * time match its entry is unchanged; otherwise its schema entries are checksummed.
+   *
+   * @param manifest the loaded manifest
+   * @return true if a jar was added, removed or changed
+   */
+  private boolean haveJarsChanged(OrderedProperties manifest) {
+    Set<String> recordedJars =
+        manifest.stringPropertyNames().stream()
+            .filter(key -> key.startsWith(JAR_PREFIX))
+            .map(key -> key.substring(JAR_PREFIX.length()))
+            .collect(Collectors.toSet());
+    boolean changed = !recordedJars.equals(jars.keySet());
+    for (Map.Entry<String, File> jar : jars.entrySet()) {
+      String value = manifest.getProperty(JAR_PREFIX + jar.getKey());
+      Entry oldEntry = value == null ? null : Entry.parse(value);
+      Entry newEntry = jarEntry(jar.getValue(), oldEntry);
+      jarEntries.put(jar.getKey(), newEntry);
+      if (oldEntry == null || !oldEntry.checksum().equals(newEntry.checksum())) {
+        log.info("schema jar {} is new or has changed", jar.getKey());
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Returns the manifest entry for a schema jar, reusing the recorded entry if the jar's stat data
+   * still matches it.
+   *
+   * @param jar the jar file
+   * @param recordedEntry the entry recorded in the manifest, or null
+   * @return the manifest entry
+   */
+  private static Entry jarEntry(File jar, Entry recordedEntry) {
+    BasicFileAttributes attributes = stat(jar);
+    if (recordedEntry != null && recordedEntry.matches(attributes)) {
+      return recordedEntry;
+    }
+    return new Entry(generateJarChecksum(jar), attributes);
+  }
+
+  /**
+   * Returns the manifest entry for a file with the configured algorithm. The entry is cached per
+   * service instance so {@link #getChangedFiles()} and {@link #syncManifest()} share the work; the
+   * file is rehashed only if its stat data no longer matches the cached entry.
+   *
+   * @param file the file to checksum
+   * @param attributes the current stat data of the file
+   * @return the manifest entry
+   */
+  private Entry entry(File file, BasicFileAttributes attributes) {
+    return entries.compute(
+        file,
+        (f, cached) ->
+            cached != null && cached.matches(attributes)
+                ? cached
+                : new Entry(generateChecksum(f, algorithm), attributes));
+  }
+
+  /**
+   * Reads the size and last-modified time of a file with a single stat call.
+   *
+   * @param file the file to stat
+   * @return the file attributes
+   */
+  @SneakyThrows
+  private static BasicFileAttributes stat(File file) {
+    return Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+  }
+
   /**
    * Loads the manifest from the manifest path, or returns an empty manifest if it does not exist.
    *
@@ -128,6 +639,18 @@ public class SchemaManifestService {
     return properties;
   }
 
+  /**
+   * Returns the format version of a loaded manifest. Manifests without a version key predate
+   * versioning and are treated as version 1.
+   *
+   * @param manifest the loaded manifest
+   * @return the manifest format version
+   */
+  private static int manifestVersion(OrderedProperties manifest) {
+    String version = manifest.getProperty(VERSION_KEY);
+    return version == null ? 1 : Integer.parseInt(version.trim());
+  }
+
   /**
    * Relativizes a file path to the project path.
    *
@@ -137,4 +660,51 @@ public class SchemaManifestService {
   private String relativizeToProject(File file) {
     return projectPath.toPath().relativize(file.toPath()).toString();
   }
+
+  /**
+   * Returns the normalized absolute project path that generated files are recorded relative to.
+   *
+   * @return the project root
+   */
+  private Path projectRoot() {
+    return projectPath.toPath().toAbsolutePath().normalize();
+  }
+
+  /**
+   * Digests a file by streaming it through a fixed-size buffer.
+   *
+   * @param path the file to digest
+   * @param algorithm the {@link MessageDigest} algorithm to use
+   * @return the raw digest bytes
+   */
+  @SneakyThrows
+  private static byte[] digest(File path, String algorithm) {
+    MessageDigest digest = MessageDigest.getInstance(algorithm);
+    try (FileChannel channel = FileChannel.open(path.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, channel.size() + 1));
+      while (channel.read(buffer) != -1) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+      }
+    }
+    return digest.digest();
+  }
+
+  /**
+   * Validates that the given digest algorithm is available.
+   *
+   * @param algorithm the {@link MessageDigest} algorithm name
+   * @return the algorithm name
+   * @throws IllegalArgumentException if the algorithm is not supported by the JVM
+   */
+  private static String checkAlgorithm(String algorithm) {
+    try {
+      MessageDigest.getInstance(algorithm);
+      return algorithm;
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalArgumentException(
+          "Unsupported schema manifest hash algorithm: " + algorithm);
+    }
+  }
 }
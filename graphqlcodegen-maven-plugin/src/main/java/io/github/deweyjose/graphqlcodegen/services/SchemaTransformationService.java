@@ -1,45 +1,32 @@
 package io.github.deweyjose.graphqlcodegen.services;
 
 import graphql.language.*;
-import graphql.schema.Coercing;
-import graphql.schema.DataFetcher;
-import graphql.schema.GraphQLScalarType;
-import graphql.schema.GraphQLSchema;
-import graphql.schema.TypeResolver;
-import graphql.schema.idl.*;
+import graphql.parser.Parser;
+import graphql.parser.ParserEnvironment;
+import graphql.parser.ParserOptions;
+import graphql.util.TraversalControl;
+import graphql.util.TraverserContext;
+import graphql.util.TreeTransformerUtil;
 import io.github.deweyjose.graphqlcodegen.Logger;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.regex.Pattern;
 import lombok.SneakyThrows;
 
-/** Service for transforming GraphQL schemas. */
+/**
+ * Service for transforming GraphQL schemas.
+ *
+ * <p>Root operation types are renamed on the parsed document and printed with {@link AstPrinter},
+ * without building an executable schema. Schemas that cannot declare custom root types, because
+ * they have no {@code schema} keyword, are returned without being parsed.
+ */
 public class SchemaTransformationService {
   private final Logger logger;
   private static final String QUERY = "Query";
   private static final String MUTATION = "Mutation";
   private static final String SUBSCRIPTION = "Subscription";
-  private static final DataFetcher<Object> NO_OP_DATA_FETCHER = environment -> null;
-  private static final TypeResolver NO_OP_TYPE_RESOLVER = environment -> null;
-  private static final Coercing<Object, Object> PASS_THROUGH_COERCING =
-      new Coercing<>() {
-        @Override
-        public Object serialize(Object dataFetcherResult) {
-          return dataFetcherResult;
-        }
-
-        @Override
-        public Object parseValue(Object input) {
-          return input;
-        }
-
-        @Override
-        public Object parseLiteral(Object input) {
-          return input;
-        }
-      };
-  private static final RuntimeWiring SCHEMA_PRINTING_WIRING =
-      RuntimeWiring.newRuntimeWiring().wiringFactory(new SchemaPrintingWiringFactory()).build();
+  private static final Pattern SCHEMA_KEYWORD = Pattern.compile("\\bschema\\b");
 
   public SchemaTransformationService(Logger logger) {
     this.logger = logger;
@@ -53,29 +40,30 @@ public class SchemaTransformationService {
    */
   @SneakyThrows
   public String transformSchema(String schemaContent) {
-    TypeDefinitionRegistry registry = new SchemaParser().parse(schemaContent);
-    Optional<SchemaDefinition> schemaDefOpt = registry.schemaDefinition();
+    if (!SCHEMA_KEYWORD.matcher(schemaContent).find()) {
+      logger.debug("No schema definition found, skipping transformation");
+      return schemaContent;
+    }
+
+    Document document = parse(schemaContent);
+    Optional<SchemaDefinition> schemaDefOpt =
+        document.getDefinitionsOfType(SchemaDefinition.class).stream()
+            .filter(definition -> !(definition instanceof SchemaExtensionDefinition))
+            .findFirst();
 
     if (schemaDefOpt.isEmpty()) {
       logger.debug("No schema definition found, skipping transformation");
       return schemaContent;
     }
 
-    SchemaDefinition schemaDef = schemaDefOpt.get();
-    Map<String, String> typeMappings = extractRootTypeMappings(schemaDef);
+    Map<String, String> typeMappings = extractRootTypeMappings(schemaDefOpt.get());
 
     if (typeMappings.isEmpty()) {
       logger.debug("No custom root types found, skipping transformation");
       return schemaContent;
     }
 
-    typeMappings.forEach((oldName, newName) -> renameTypeAndExtensions(registry, oldName, newName));
-    SchemaDefinition newSchemaDef = rebuildSchemaDefinition(schemaDef, typeMappings);
-
-    registry.remove(schemaDef);
-    registry.add(newSchemaDef);
-
-    return printSchema(registry);
+    return AstPrinter.printAst(renameTypes(document, typeMappings));
   }
 
   /**
@@ -100,7 +88,8 @@ public class SchemaTransformationService {
    * Extracts root type mappings from a schema definition.
    *
    * @param schemaDef the schema definition
-   * @return a map of old type names to new type names
+   * @return a map of old type names to new type names, without the root types already named Query,
+   *     Mutation or Subscription
    */
   private Map<String, String> extractRootTypeMappings(SchemaDefinition schemaDef) {
     Map<String, String> mappings = new HashMap<>();
@@ -112,100 +101,59 @@ public class SchemaTransformationService {
         case "subscription" -> mappings.put(typeName, SUBSCRIPTION);
       }
     }
+    mappings.entrySet().removeIf(mapping -> mapping.getKey().equals(mapping.getValue()));
     return mappings;
   }
 
   /**
-   * Renames a type and its extensions in the registry.
+   * Parses schema content with the SDL parser options, which do not cap the number of tokens.
    *
-   * @param registry the type definition registry
-   * @param oldName the old type name
-   * @param newName the new type name
+   * @param schemaContent the schema content
+   * @return the parsed document
    */
-  private void renameTypeAndExtensions(
-      TypeDefinitionRegistry registry, String oldName, String newName) {
-    TypeDefinition<?> type = registry.getTypeOrNull(oldName);
-    if (type instanceof ObjectTypeDefinition objType) {
-      registry.remove(type);
-      registry.add(objType.transform(builder -> builder.name(newName)));
-    }
-
-    List<ObjectTypeExtensionDefinition> extensions =
-        new ArrayList<>(registry.objectTypeExtensions().getOrDefault(oldName, List.of()));
-    for (ObjectTypeExtensionDefinition ext : extensions) {
-      registry.remove(ext);
-      registry.add(ext.transformExtension(builder -> builder.name(newName)));
-    }
+  private Document parse(String schemaContent) {
+    return Parser.parse(
+        ParserEnvironment.newParserEnvironment()
+            .document(schemaContent)
+            .parserOptions(ParserOptions.getDefaultSdlParserOptions())
+            .build());
   }
 
   /**
-   * Rebuilds the schema definition with the new operation type names.
+   * Renames object types, their extensions and every reference to them, including the operation
+   * types of the schema definition.
    *
-   * @param original the original schema definition
+   * @param document the schema document
    * @param typeMappings the type mappings
-   * @return the rebuilt schema definition
+   * @return the document with the types renamed
    */
-  private SchemaDefinition rebuildSchemaDefinition(
-      SchemaDefinition original, Map<String, String> typeMappings) {
-    List<OperationTypeDefinition> newOps = new ArrayList<>();
-    for (OperationTypeDefinition op : original.getOperationTypeDefinitions()) {
-      String updatedName =
-          typeMappings.getOrDefault(op.getTypeName().getName(), op.getTypeName().getName());
-      newOps.add(
-          op.transform(
-              builder -> builder.typeName(TypeName.newTypeName().name(updatedName).build())));
-    }
-    return original.transform(builder -> builder.operationTypeDefinitions(newOps));
-  }
-
-  private String printSchema(TypeDefinitionRegistry registry) {
-    GraphQLSchema schema =
-        new SchemaGenerator().makeExecutableSchema(registry, SCHEMA_PRINTING_WIRING);
-    return new SchemaPrinter().print(schema);
-  }
-
-  private static final class SchemaPrintingWiringFactory implements WiringFactory {
-    @Override
-    public boolean providesTypeResolver(InterfaceWiringEnvironment environment) {
-      return true;
-    }
-
-    @Override
-    public TypeResolver getTypeResolver(InterfaceWiringEnvironment environment) {
-      return NO_OP_TYPE_RESOLVER;
-    }
-
-    @Override
-    public boolean providesTypeResolver(UnionWiringEnvironment environment) {
-      return true;
-    }
-
-    @Override
-    public TypeResolver getTypeResolver(UnionWiringEnvironment environment) {
-      return NO_OP_TYPE_RESOLVER;
-    }
-
-    @Override
-    public boolean providesDataFetcher(FieldWiringEnvironment environment) {
-      return true;
-    }
-
-    @Override
-    public DataFetcher<?> getDataFetcher(FieldWiringEnvironment environment) {
-      return NO_OP_DATA_FETCHER;
-    }
-
-    @Override
-    public boolean providesScalar(ScalarWiringEnvironment environment) {
-      return !ScalarInfo.isGraphqlSpecifiedScalar(environment.getScalarTypeDefinition().getName());
-    }
-
-    @Override
-    public GraphQLScalarType getScalar(ScalarWiringEnvironment environment) {
-      return GraphQLScalarType.newScalar()
-          .name(environment.getScalarTypeDefinition().getName())
-          .coercing(PASS_THROUGH_COERCING)
-          .build();
-    }
+  private Document renameTypes(Document document, Map<String, String> typeMappings) {
+    NodeVisitorStub renamer =
+        new NodeVisitorStub() {
+          @Override
+          public TraversalControl visitObjectTypeDefinition(
+              ObjectTypeDefinition node, TraverserContext<Node> context) {
+            String newName = typeMappings.get(node.getName());
+            if (newName != null) {
+              // extensions are visited here too, and must stay extensions once renamed
+              TreeTransformerUtil.changeNode(
+                  context,
+                  node instanceof ObjectTypeExtensionDefinition ext
+                      ? ext.transformExtension(b -> b.name(newName))
+                      : node.transform(b -> b.name(newName)));
+            }
+            return TraversalControl.CONTINUE;
+          }
+
+          @Override
+          public TraversalControl visitTypeName(TypeName node, TraverserContext<Node> context) {
+            String newName = typeMappings.get(node.getName());
+            if (newName != null) {
+              TreeTransformerUtil.changeNode(context, node.transform(b -> b.name(newName)));
+            }
+            return TraversalControl.CONTINUE;
+          }
+        };
+    return (Document) new AstTransformer().transform(document, renamer);
   }
 }
@@ -0,0 +1,169 @@
+package io.github.deweyjose.graphqlcodegen.services;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.SneakyThrows;
+import nu.studer.java.util.OrderedProperties;
+import nu.studer.java.util.OrderedProperties.OrderedPropertiesBuilder;
+
+/**
+ * On-disk index of the type mappings found in dependency jars, so unchanged jars do not have to be
+ * opened on every build.
+ *
+ * <p>For each jar, the index records its path, size and last-modified time, and the mappings its
+ * {@code typeMappingPropertiesFiles} contain (none for a jar without any of those files). A jar
+ * whose stat data still matches is served from the index. The whole index is discarded when the
+ * list of properties files changes. Only the jars looked up during a build are written back, so
+ * removed dependencies drop out of the index.
+ */
+class TypeMappingIndex {
+  static final String INDEX_FILE = "type-mapping-index.properties";
+  static final int INDEX_VERSION = 1;
+
+  private static final String VERSION_KEY = "version";
+  private static final String FILES_KEY = "files";
+  private static final String JAR_PREFIX = "jar.";
+  private static final String PATH_SUFFIX = ".path";
+  private static final String STAT_SUFFIX = ".stat";
+  private static final String MAPPING_INFIX = ".mapping.";
+
+  private final File indexFile;
+  private final String files;
+  private final Map<String, Jar> recorded = new HashMap<>();
+  private final Map<String, Jar> current = new TreeMap<>();
+  private boolean changed;
+
+  /**
+   * The indexed type mappings of a jar.
+   *
+   * @param stat the size and last-modified time of the jar
+   * @param mapping the type mappings the jar contains
+   */
+  private record Jar(String stat, Map<String, String> mapping) {}
+
+  private TypeMappingIndex(File indexFile, String files) {
+    this.indexFile = indexFile;
+    this.files = files;
+  }
+
+  /**
+   * Loads the index, or starts an empty one if it does not exist, was written by another format
+   * version or for other properties files.
+   *
+   * @param indexFile the index file
+   * @param typeMappingPropertiesFiles the properties files looked up in each jar
+   * @return the index
+   */
+  @SneakyThrows
+  static TypeMappingIndex load(File indexFile, List<String> typeMappingPropertiesFiles) {
+    TypeMappingIndex index =
+        new TypeMappingIndex(indexFile, String.join(",", typeMappingPropertiesFiles));
+    if (!indexFile.isFile()) {
+      index.changed = true;
+      return index;
+    }
+    OrderedProperties properties =
+        new OrderedPropertiesBuilder().withSuppressDateInComment(true).build();
+    try (FileInputStream fis = new FileInputStream(indexFile)) {
+      properties.load(fis);
+    }
+    if (!String.valueOf(INDEX_VERSION).equals(properties.getProperty(VERSION_KEY))
+        || !index.files.equals(properties.getProperty(FILES_KEY))) {
+      index.changed = true;
+      return index;
+    }
+
+    Map<String, String> paths = new HashMap<>();
+    Map<String, String> stats = new HashMap<>();
+    Map<String, Map<String, String>> mappings = new HashMap<>();
+    for (String key : properties.stringPropertyNames()) {
+      if (!key.startsWith(JAR_PREFIX)) {
+        continue;
+      }
+      String rest = key.substring(JAR_PREFIX.length());
+      int dot = rest.indexOf('.');
+      if (dot < 0) {
+        continue;
+      }
+      String id = rest.substring(0, dot);
+      String field = rest.substring(dot);
+      String value = properties.getProperty(key);
+      if (field.equals(PATH_SUFFIX)) {
+        paths.put(id, value);
+      } else if (field.equals(STAT_SUFFIX)) {
+        stats.put(id, value);
+      } else if (field.startsWith(MAPPING_INFIX)) {
+        mappings
+            .computeIfAbsent(id, k -> new HashMap<>())
+            .put(field.substring(MAPPING_INFIX.length()), value);
+      }
+    }
+    paths.forEach(
+        (id, path) -> {
+          if (stats.containsKey(id)) {
+            index.recorded.put(path, new Jar(stats.get(id), mappings.getOrDefault(id, Map.of())));
+          }
+        });
+    return index;
+  }
+
+  /**
+   * Returns the indexed type mappings of a jar if its size and last-modified time are unchanged.
+   *
+   * @param jar the jar file
+   * @return the type mappings, or null if the jar is not indexed or has changed
+   */
+  Map<String, String> get(File jar) {
+    String path = jar.getAbsolutePath();
+    Jar entry = recorded.get(path);
+    if (entry == null || !entry.stat().equals(stat(jar))) {
+      return null;
+    }
+    current.put(path, entry);
+    return entry.mapping();
+  }
+
+  /**
+   * Records the type mappings read from a jar.
+   *
+   * @param jar the jar file
+   * @param mapping the type mappings the jar contains
+   */
+  void put(File jar, Map<String, String> mapping) {
+    current.put(jar.getAbsolutePath(), new Jar(stat(jar), new TreeMap<>(mapping)));
+    changed = true;
+  }
+
+  /** Writes the index if a jar was added, changed or removed. */
+  @SneakyThrows
+  void save() {
+    if (!changed && current.keySet().equals(recorded.keySet())) {
+      return;
+    }
+    OrderedProperties properties =
+        new OrderedPropertiesBuilder().withSuppressDateInComment(true).build();
+    properties.setProperty(VERSION_KEY, String.valueOf(INDEX_VERSION));
+    properties.setProperty(FILES_KEY, files);
+    int id = 0;
+    for (Map.Entry<String, Jar> entry : current.entrySet()) {
+      String prefix = JAR_PREFIX + id++;
+      properties.setProperty(prefix + PATH_SUFFIX, entry.getKey());
+      properties.setProperty(prefix + STAT_SUFFIX, entry.getValue().stat());
+      new TreeMap<>(entry.getValue().mapping())
+          .forEach((key, value) -> properties.setProperty(prefix + MAPPING_INFIX + key, value));
+    }
+    indexFile.getParentFile().mkdirs();
+    try (FileOutputStream fos = new FileOutputStream(indexFile)) {
+      properties.store(fos, "Type Mapping Index");
+    }
+  }
+
+  private static String stat(File jar) {
+    return jar.length() + "," + jar.lastModified();
+  }
+}
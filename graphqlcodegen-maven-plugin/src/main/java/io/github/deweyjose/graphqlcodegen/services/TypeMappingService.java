@@ -1,29 +1,102 @@
 package io.github.deweyjose.graphqlcodegen.services;
 
+import io.github.deweyjose.graphqlcodegen.CodegenPhaseReport;
+import io.github.deweyjose.graphqlcodegen.Logger;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
+import lombok.SneakyThrows;
 import org.apache.maven.artifact.Artifact;
 
 /** This class provides services related to type mapping. */
 public class TypeMappingService {
+  /** The maximum number of dependency jars read concurrently. */
+  static final int MAX_CONCURRENT_JAR_SCANS = 8;
+
+  private final File indexFile;
+  private final Logger logger;
+
+  /**
+   * Type mappings read from dependency jars, keyed by jar path, size, last-modified time and the
+   * properties files looked up, and bounded by the total number of mappings.
+   */
+  static final ContentCache<Map<String, String>> JAR_TYPE_MAPPINGS =
+      new ContentCache<>(1_000_000, mapping -> mapping.size() + 1L);
+
+  /**
+   * Constructs a new TypeMappingService that reads every dependency jar on each merge.
+   *
+   * @param logger the maven logger
+   */
+  public TypeMappingService(Logger logger) {
+    this(null, logger);
+  }
+
+  /**
+   * Constructs a new TypeMappingService that keeps an index of the type mappings found in
+   * dependency jars (see {@link TypeMappingIndex}), so jars that have not changed since the last
+   * build are not opened.
+   *
+   * @param indexDir the directory to keep the index in, or null to not keep one
+   * @param logger the maven logger
+   */
+  public TypeMappingService(File indexDir, Logger logger) {
+    this.indexFile = indexDir == null ? null : new File(indexDir, TypeMappingIndex.INDEX_FILE);
+    this.logger = logger;
+  }
+
   /**
-   * Loads type mapping properties from the specified files inside a JAR file.
+   * Loads type mapping properties from the specified files inside a JAR file. The mappings of a jar
+   * are cached (see {@link ContentCache}) until the jar's size or last-modified time changes, so
+   * modules of the same build that share a dependency only read it once. A jar that cannot be read
+   * is logged as a warning and neither cached nor indexed, so the next build reads it again.
    *
    * @param artifactFile the JAR file to load properties from
    * @param typeMappingPropertiesFiles the list of property file paths inside the JAR
-   * @return a map containing the type mappings loaded from the properties files
+   * @return a map containing the type mappings loaded from the properties files, or null if the jar
+   *     cannot be read
    */
   public Map<String, String> loadPropertiesFile(
       File artifactFile, List<String> typeMappingPropertiesFiles) {
+    String key =
+        ContentCache.key(
+            artifactFile.getAbsolutePath(),
+            artifactFile.length(),
+            artifactFile.lastModified(),
+            typeMappingPropertiesFiles);
+    Map<String, String> typeMapping =
+        JAR_TYPE_MAPPINGS.get(
+            key,
+            () -> {
+              try {
+                return Map.copyOf(readPropertiesFile(artifactFile, typeMappingPropertiesFiles));
+              } catch (IOException e) {
+                logger.warn(
+                    "ignoring the type mappings of {}, it cannot be read: {}",
+                    artifactFile,
+                    e.getMessage());
+                return null;
+              }
+            });
+    return typeMapping == null ? null : new HashMap<>(typeMapping);
+  }
+
+  private static Map<String, String> readPropertiesFile(
+      File artifactFile, List<String> typeMappingPropertiesFiles) throws IOException {
     Map<String, String> typeMapping = new HashMap<>();
     try (JarFile jarFile = new JarFile(artifactFile)) {
       for (String file : typeMappingPropertiesFiles) {
@@ -37,12 +110,51 @@ public class TypeMappingService {
           }
         }
       }
-    } catch (IOException e) {
-      e.printStackTrace();
     }
     return typeMapping;
   }
 
+  /**
+   * Loads type mapping properties from several JAR files, reading up to {@value
+   * #MAX_CONCURRENT_JAR_SCANS} jars concurrently.
+   *
+   * @param artifactFiles the JAR files to load properties from
+   * @param typeMappingPropertiesFiles the list of property file paths inside the JARs
+   * @return the type mappings of each JAR file, in the order of {@code artifactFiles}; null for a
+   *     jar that cannot be read
+   */
+  @SneakyThrows
+  List<Map<String, String>> loadPropertiesFiles(
+      List<File> artifactFiles, List<String> typeMappingPropertiesFiles) {
+    if (artifactFiles.size() <= 1) {
+      return artifactFiles.stream()
+          .map(file -> loadPropertiesFile(file, typeMappingPropertiesFiles))
+          .toList();
+    }
+    ExecutorService executor =
+        Executors.newFixedThreadPool(Math.min(artifactFiles.size(), MAX_CONCURRENT_JAR_SCANS));
+    try {
+      List<Callable<Map<String, String>>> scans =
+          artifactFiles.stream()
+              .<Callable<Map<String, String>>>map(
+                  file ->
+                      CodegenPhaseReport.worker(
+                          () -> loadPropertiesFile(file, typeMappingPropertiesFiles)))
+              .toList();
+      List<Map<String, String>> mappings = new ArrayList<>();
+      for (Future<Map<String, String>> future : executor.invokeAll(scans)) {
+        try {
+          mappings.add(future.get());
+        } catch (ExecutionException e) {
+          throw e.getCause();
+        }
+      }
+      return mappings;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   /**
    * Loads type mapping properties from local files.
    *
@@ -63,7 +175,10 @@ public class TypeMappingService {
             typeMappingProperties.forEach(
                 (k, v) -> typeMapping.putIfAbsent(String.valueOf(k), String.valueOf(v)));
           } catch (IOException e) {
-            e.printStackTrace();
+            logger.warn(
+                "ignoring the type mappings of {}, it cannot be read: {}",
+                propertiesFile,
+                e.getMessage());
           }
         }
       }
@@ -78,7 +193,8 @@ public class TypeMappingService {
    * @param userTypeMapping the user-provided type mapping (may be null)
    * @param typeMappingPropertiesFiles the list of property file paths to search for in dependencies
    * @param localTypeMappingPropertiesFiles the list of local property file paths
-   * @param artifacts the set of Maven dependency artifacts to search for property files
+   * @param artifacts the set of Maven dependency artifacts to search for property files; with an
+   *     index, jars whose size and last-modified time are unchanged are not opened
    * @param projectBaseDir the project base directory
    * @return a map containing the merged type mappings, with user mappings taking precedence
    */
@@ -90,12 +206,42 @@ public class TypeMappingService {
       File projectBaseDir) {
     Map<String, String> jarTypeMapping = new HashMap<>();
     if (typeMappingPropertiesFiles != null && !typeMappingPropertiesFiles.isEmpty()) {
+      TypeMappingIndex index =
+          indexFile == null ? null : TypeMappingIndex.load(indexFile, typeMappingPropertiesFiles);
+      List<File> jars = new ArrayList<>();
+      List<Map<String, String>> mappings = new ArrayList<>();
+      List<Integer> unindexed = new ArrayList<>();
       for (Artifact dependency : artifacts) {
         File artifactFile = dependency.getFile();
         if (artifactFile != null && artifactFile.isFile()) {
-          jarTypeMapping.putAll(loadPropertiesFile(artifactFile, typeMappingPropertiesFiles));
+          Map<String, String> mapping = index == null ? null : index.get(artifactFile);
+          if (mapping == null) {
+            unindexed.add(jars.size());
+          }
+          jars.add(artifactFile);
+          mappings.add(mapping);
         }
       }
+      List<Map<String, String>> loaded =
+          loadPropertiesFiles(
+              unindexed.stream().map(jars::get).toList(), typeMappingPropertiesFiles);
+      for (int i = 0; i < unindexed.size(); i++) {
+        int position = unindexed.get(i);
+        if (loaded.get(i) == null) {
+          // not indexed, so the jar is read again by the next build
+          mappings.set(position, Map.of());
+          continue;
+        }
+        mappings.set(position, loaded.get(i));
+        if (index != null) {
+          index.put(jars.get(position), loaded.get(i));
+        }
+      }
+      // later dependencies win, as they did when the jars were read one by one
+      mappings.forEach(jarTypeMapping::putAll);
+      if (index != null) {
+        index.save();
+      }
     }
 
     // Load local type mappings
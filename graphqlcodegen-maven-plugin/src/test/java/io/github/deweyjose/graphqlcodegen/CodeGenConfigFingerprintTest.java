@@ -0,0 +1,59 @@
+package io.github.deweyjose.graphqlcodegen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class CodeGenConfigFingerprintTest {
+
+  private static final Map<String, String> TYPE_MAPPING =
+      Map.of("Date", "java.time.LocalDate", "Long", "java.lang.Long");
+
+  private static String fingerprint(TestCodegenProvider request, Map<String, String> typeMapping) {
+    return CodeGenConfigFingerprint.of(
+        CodegenExecutor.newConfigBuilder(request, Collections.emptyList(), typeMapping)
+            .setSchemaFiles(Collections.emptySet())
+            .build());
+  }
+
+  @Test
+  void testSameConfigSameFingerprint() {
+    assertEquals(
+        fingerprint(new TestCodegenProvider(), TYPE_MAPPING),
+        fingerprint(
+            new TestCodegenProvider(),
+            Map.of("Long", "java.lang.Long", "Date", "java.time.LocalDate")));
+  }
+
+  @Test
+  void testOptionChangeChangesFingerprint() {
+    String fingerprint = fingerprint(new TestCodegenProvider(), TYPE_MAPPING);
+
+    TestCodegenProvider request = new TestCodegenProvider();
+    request.setPackageName("com.other");
+    assertNotEquals(fingerprint, fingerprint(request, TYPE_MAPPING));
+
+    request = new TestCodegenProvider();
+    request.setGenerateDataTypes(false);
+    assertNotEquals(fingerprint, fingerprint(request, TYPE_MAPPING));
+
+    assertNotEquals(
+        fingerprint, fingerprint(new TestCodegenProvider(), Map.of("Date", "java.util.Date")));
+  }
+
+  @Test
+  void testSchemaFilesAreIgnored() {
+    assertEquals(
+        fingerprint(new TestCodegenProvider(), TYPE_MAPPING),
+        CodeGenConfigFingerprint.of(
+            CodegenExecutor.newConfigBuilder(
+                    new TestCodegenProvider(), Collections.emptyList(), TYPE_MAPPING)
+                .setSchemaFiles(Set.of(new File("schema.graphqls")))
+                .build()));
+  }
+}
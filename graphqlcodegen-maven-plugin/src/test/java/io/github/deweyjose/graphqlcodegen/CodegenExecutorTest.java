@@ -3,6 +3,8 @@ package io.github.deweyjose.graphqlcodegen;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.deweyjose.graphqlcodegen.parameters.IntrospectionRequest;
 import io.github.deweyjose.graphqlcodegen.parameters.ParameterMap;
 import io.github.deweyjose.graphqlcodegen.services.RemoteSchemaService;
@@ -13,6 +15,7 @@ import io.github.deweyjose.graphqlcodegen.services.TypeMappingService;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -38,7 +41,7 @@ class CodegenExecutorTest {
     remoteSchemaService = mock(RemoteSchemaService.class);
     logger = new Slf4jLogger();
     schemaTransformationService = new SchemaTransformationService(logger);
-    typeMappingService = new TypeMappingService();
+    typeMappingService = new TypeMappingService(logger);
 
     // Setup single output directory
     outputDir = new File("target/generated-test-codegen-executor");
@@ -76,11 +79,79 @@ class CodegenExecutorTest {
         "Should generate constants file");
   }
 
+  @SneakyThrows
+  @Test
+  void testWritesPhaseReport() {
+    File schemaFile = TestUtils.getFile("schema/test-schema.graphqls");
+    File reportFile = new File(outputDir, CodegenPhaseReport.REPORT_FILE);
+
+    TestCodegenProvider config = new TestCodegenProvider();
+    config.setSchemaPaths(Set.of(schemaFile));
+    config.setOutputDir(outputDir);
+    config.setSchemaManifestOutputDir(outputDir);
+    config.setOnlyGenerateChanged(true);
+
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+
+    JsonNode report = new ObjectMapper().readTree(reportFile);
+    assertEquals("com.example:test", report.get("project").asText());
+    assertEquals("generated", report.get("outcome").asText());
+    List<String> phases = new ArrayList<>();
+    report.get("phases").forEach(phase -> phases.add(phase.get("name").asText()));
+    assertEquals(
+        List.of(
+            "discovery",
+            "remoteSchemas",
+            "typeMapping",
+            "changeDetection",
+            "codegen",
+            "write",
+            "manifestSync"),
+        phases);
+    JsonNode codegen = report.get("phases").get(4);
+    assertTrue(codegen.get("wallNanos").asLong() > 0);
+    assertTrue(codegen.get("allocatedBytes").asLong() != 0);
+    JsonNode discovery = report.get("phases").get(0);
+    assertTrue(discovery.get("parallel").asBoolean());
+    assertTrue(discovery.get("cpuNanos").asLong() >= 0);
+    assertTrue(discovery.get("allocatedBytes").asLong() >= 0);
+
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+
+    report = new ObjectMapper().readTree(reportFile);
+    assertEquals("up-to-date", report.get("outcome").asText());
+  }
+
+  @SneakyThrows
+  @Test
+  void testReportWriteFailureKeepsCodegenFailure() {
+    File notADirectory = new File(outputDir, "report-dir");
+    outputDir.mkdirs();
+    Files.writeString(notADirectory.toPath(), "not a directory");
+
+    TestCodegenProvider config = new TestCodegenProvider();
+    config.setOutputDir(outputDir);
+    config.setSchemaManifestOutputDir(notADirectory);
+
+    IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> newExecutor().execute(config, new HashSet<>(), new File(".")));
+    assertTrue(e.getMessage().startsWith("No schema files found"));
+  }
+
   @SneakyThrows
   @Test
   void testGenerateCodeFromSchemaWithRemoteSchema() {
     String testSchema = TestUtils.getFileContent("schema/test-schema-with-user.graphqls");
-    when(remoteSchemaService.getRemoteSchemaFile(TestUtils.TEST_SCHEMA_URL)).thenReturn(testSchema);
+    when(remoteSchemaService.downloadRemoteSchemaFile(eq(TestUtils.TEST_SCHEMA_URL), any()))
+        .thenAnswer(
+            invocation -> {
+              File file = invocation.getArgument(1);
+              file.getParentFile().mkdirs();
+              Files.writeString(file.toPath(), testSchema);
+              return file;
+            });
 
     SchemaManifestService manifestService = new SchemaManifestService(outputDir, outputDir);
     schemaFileService =
@@ -285,9 +356,9 @@ class CodegenExecutorTest {
   void testGenerateCodeFromIntrospection() throws Exception {
     String testSchema = TestUtils.getFileContent("schema/test-schema-with-user.graphqls");
 
-    when(remoteSchemaService.getIntrospectedSchemaFile(
-            eq("https://example.com/graphql"), any(), any()))
-        .thenReturn(testSchema);
+    when(remoteSchemaService.downloadIntrospectedSchemaFile(
+            eq("https://example.com/graphql"), any(), any(), any()))
+        .thenAnswer(invocation -> writeSchema(invocation.getArgument(3), testSchema));
 
     TestCodegenProvider config = new TestCodegenProvider();
     config.setOutputDir(outputDir);
@@ -323,12 +394,12 @@ class CodegenExecutorTest {
   }
 
   @Test
-  void testGenerateCodeFromIntrospectionCustomTypes() throws IOException {
+  void testGenerateCodeFromIntrospectionCustomTypes() throws Exception {
     String testSchema = TestUtils.getFileContent("schema/test-schema-custom-roots.graphqls");
 
-    when(remoteSchemaService.getIntrospectedSchemaFile(
-            eq("https://example.com/graphql"), any(), any()))
-        .thenReturn(testSchema);
+    when(remoteSchemaService.downloadIntrospectedSchemaFile(
+            eq("https://example.com/graphql"), any(), any(), any()))
+        .thenAnswer(invocation -> writeSchema(invocation.getArgument(3), testSchema));
 
     TestCodegenProvider config = new TestCodegenProvider();
     config.setOutputDir(outputDir);
@@ -382,7 +453,337 @@ class CodegenExecutorTest {
         "Should generate ActorsDatafetcher file");
   }
 
+  @Test
+  void testUnchangedIntrospectedSchemaIsUpToDate() throws Exception {
+    String testSchema = TestUtils.getFileContent("schema/test-schema-custom-roots.graphqls");
+    File reportFile = new File(outputDir, CodegenPhaseReport.REPORT_FILE);
+
+    when(remoteSchemaService.downloadIntrospectedSchemaFile(
+            eq("https://example.com/graphql"), any(), any(), any()))
+        .thenAnswer(invocation -> writeSchema(invocation.getArgument(3), testSchema));
+
+    TestCodegenProvider config = new TestCodegenProvider();
+    config.setOutputDir(outputDir);
+    config.setSchemaManifestOutputDir(outputDir);
+    config.setOnlyGenerateChanged(true);
+
+    IntrospectionRequest introspectionRequest = new IntrospectionRequest();
+    introspectionRequest.setUrl("https://example.com/graphql");
+    config.setIntrospectionRequests(List.of(introspectionRequest));
+
+    introspectionExecutor().execute(config, new HashSet<>(), new File("."));
+    assertEquals("generated", new ObjectMapper().readTree(reportFile).get("outcome").asText());
+
+    File[] remoteSchemas = new File(outputDir, "remote-schemas").listFiles();
+    assertNotNull(remoteSchemas);
+    assertEquals(1, remoteSchemas.length);
+    File remoteSchema = remoteSchemas[0];
+    long lastModified = remoteSchema.lastModified() - 60_000;
+    assertTrue(remoteSchema.setLastModified(lastModified));
+
+    introspectionExecutor().execute(config, new HashSet<>(), new File("."));
+
+    verify(remoteSchemaService, times(2))
+        .downloadIntrospectedSchemaFile(eq("https://example.com/graphql"), any(), any(), any());
+    assertEquals("up-to-date", new ObjectMapper().readTree(reportFile).get("outcome").asText());
+    assertEquals(lastModified, remoteSchema.lastModified());
+  }
+
+  @Test
+  void testPrefetchResolvesRemoteSchemasWithoutGenerating() throws Exception {
+    String testSchema = TestUtils.getFileContent("schema/test-schema-with-user.graphqls");
+    when(remoteSchemaService.downloadRemoteSchemaFile(eq("https://example.com/schema"), any()))
+        .thenAnswer(invocation -> writeSchema(invocation.getArgument(1), testSchema));
+    when(remoteSchemaService.downloadIntrospectedSchemaFile(
+            eq("https://example.com/graphql"), any(), any(), any()))
+        .thenAnswer(invocation -> writeSchema(invocation.getArgument(3), testSchema));
+
+    TestCodegenProvider config = new TestCodegenProvider();
+    config.setOutputDir(outputDir);
+    config.setSchemaManifestOutputDir(outputDir);
+    config.setSchemaUrls(List.of("https://example.com/schema"));
+    IntrospectionRequest introspectionRequest = new IntrospectionRequest();
+    introspectionRequest.setUrl("https://example.com/graphql");
+    config.setIntrospectionRequests(List.of(introspectionRequest));
+
+    SchemaManifestService manifestService = new SchemaManifestService(outputDir, outputDir);
+    schemaFileService =
+        new SchemaFileService(
+            outputDir, manifestService, remoteSchemaService, schemaTransformationService);
+    schemaFileService.useSchemaLock(
+        new File(outputDir, "graphqlcodegen.lock"), new File(outputDir, "schema-cache"));
+    executor = new CodegenExecutor(schemaFileService, typeMappingService, logger);
+
+    executor.prefetch(config, new HashSet<>(), new File("."));
+
+    verify(remoteSchemaService).downloadRemoteSchemaFile(eq("https://example.com/schema"), any());
+    verify(remoteSchemaService)
+        .downloadIntrospectedSchemaFile(eq("https://example.com/graphql"), any(), any(), any());
+    assertTrue(new File(outputDir, "graphqlcodegen.lock").isFile(), "Should write the lock");
+    assertEquals(1, new File(outputDir, "schema-cache").listFiles().length);
+    assertFalse(new File(outputDir, "com").exists(), "Should not generate code");
+    assertFalse(
+        new File(outputDir, "schema-manifest.props").exists(), "Should not write the manifest");
+  }
+
+  @Test
+  void testConfigChangeForcesRegeneration() {
+    File schemaFile = TestUtils.getFile("schema/test-schema.graphqls");
+
+    TestCodegenProvider config = new TestCodegenProvider();
+    config.setSchemaPaths(Set.of(schemaFile));
+    config.setOutputDir(outputDir);
+    config.setSchemaManifestOutputDir(outputDir);
+    config.setOnlyGenerateChanged(true);
+
+    File constants = new File(outputDir, "com/example/DgsConstants.java");
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+    assertTrue(constants.exists(), "Should generate constants file");
+    assertTrue(new File(outputDir, "com/example/client/HelloGraphQLQuery.java").exists());
+
+    // unchanged schema and configuration: nothing is generated
+    assertTrue(constants.delete());
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+    assertFalse(constants.exists(), "Should not regenerate unchanged schema");
+
+    // same schema, different configuration: everything is generated
+    config.setPackageName("com.example.changed");
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+    assertTrue(
+        new File(outputDir, "com/example/changed/DgsConstants.java").exists(),
+        "Should regenerate after a configuration change");
+    assertFalse(
+        new File(outputDir, "com/example/client/HelloGraphQLQuery.java").exists(),
+        "Should delete files generated with the previous configuration");
+  }
+
+  @SneakyThrows
+  @Test
+  void testChangedFileRegeneratesDependentsInOtherFiles() {
+    File schemaDir = new File(outputDir, "schema").getAbsoluteFile();
+    schemaDir.mkdirs();
+    Files.writeString(
+        new File(schemaDir, "show.graphqls").toPath(),
+        "type Query { shows: [Show] }\ntype Show { title: String rating: Rating }");
+    File rating = new File(schemaDir, "rating.graphqls");
+    Files.writeString(rating.toPath(), "type Rating { stars: Int }");
+    Files.writeString(
+        new File(schemaDir, "actor.graphqls").toPath(), "type Actor { name: String }");
+
+    TestCodegenProvider config = new TestCodegenProvider();
+    config.setSchemaPaths(Set.of(schemaDir));
+    config.setOutputDir(outputDir);
+    config.setSchemaManifestOutputDir(outputDir);
+    config.setOnlyGenerateChanged(true);
+
+    File show = new File(outputDir, "com/example/types/Show.java");
+    File actor = new File(outputDir, "com/example/types/Actor.java");
+    File ratingType = new File(outputDir, "com/example/types/Rating.java");
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+    assertTrue(show.exists() && actor.exists() && ratingType.exists());
+
+    assertTrue(show.delete());
+    assertTrue(actor.setLastModified(0));
+    Files.writeString(rating.toPath(), "type Rating { stars: Int votes: Int }");
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+
+    assertTrue(Files.readString(ratingType.toPath()).contains("votes"));
+    assertTrue(show.exists(), "Should regenerate a type that references the changed type");
+    assertEquals(0, actor.lastModified(), "Should not regenerate an unrelated type");
+  }
+
+  @SneakyThrows
+  @Test
+  void testNewImplementationInOtherFileRegeneratesInterfaceAndUnion() {
+    File schemaDir = new File(outputDir, "schema").getAbsoluteFile();
+    schemaDir.mkdirs();
+    Files.writeString(
+        new File(schemaDir, "node.graphqls").toPath(),
+        """
+        type Query { node: Node search: [SearchResult] }
+        interface Node { id: ID! }
+        type A implements Node { id: ID! }
+        union SearchResult = A
+        """);
+    Files.writeString(
+        new File(schemaDir, "actor.graphqls").toPath(), "type Actor { name: String }");
+
+    TestCodegenProvider config = new TestCodegenProvider();
+    config.setSchemaPaths(Set.of(schemaDir));
+    config.setOutputDir(outputDir);
+    config.setSchemaManifestOutputDir(outputDir);
+    config.setOnlyGenerateChanged(true);
+
+    File node = new File(outputDir, "com/example/types/Node.java");
+    File searchResult = new File(outputDir, "com/example/types/SearchResult.java");
+    File actor = new File(outputDir, "com/example/types/Actor.java");
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+    assertFalse(Files.readString(node.toPath()).contains("C.class"));
+
+    assertTrue(actor.setLastModified(0));
+    File c = new File(schemaDir, "c.graphqls");
+    Files.writeString(
+        c.toPath(), "type C implements Node { id: ID! }\nextend union SearchResult = C");
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+
+    assertTrue(
+        Files.readString(node.toPath()).contains("C.class"),
+        "Should list the new implementation in the interface");
+    assertTrue(
+        Files.readString(searchResult.toPath()).contains("C.class"),
+        "Should list the new member in the union");
+    assertTrue(new File(outputDir, "com/example/types/C.java").exists());
+    assertEquals(0, actor.lastModified(), "Should not regenerate an unrelated type");
+
+    assertTrue(c.delete());
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+
+    assertFalse(
+        Files.readString(node.toPath()).contains("C.class"),
+        "Should drop a removed implementation from the interface");
+    assertFalse(Files.readString(searchResult.toPath()).contains("C.class"));
+  }
+
+  @SneakyThrows
+  @Test
+  void testEditInMonolithicFileRegeneratesOnlyChangedTypes() {
+    File schemaDir = new File(outputDir, "schema").getAbsoluteFile();
+    schemaDir.mkdirs();
+    File schema = new File(schemaDir, "schema.graphqls");
+    String content =
+        """
+        type Query { shows: [Show] actors: [Actor] }
+        type Show { title: String rating: Rating }
+        type Rating { stars: Int }
+        type Actor { name: String }
+        """;
+    Files.writeString(schema.toPath(), content);
+
+    TestCodegenProvider config = new TestCodegenProvider();
+    config.setSchemaPaths(Set.of(schemaDir));
+    config.setOutputDir(outputDir);
+    config.setSchemaManifestOutputDir(outputDir);
+    config.setOnlyGenerateChanged(true);
+
+    File show = new File(outputDir, "com/example/types/Show.java");
+    File actor = new File(outputDir, "com/example/types/Actor.java");
+    File rating = new File(outputDir, "com/example/types/Rating.java");
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+    assertTrue(show.exists() && actor.exists() && rating.exists());
+
+    assertTrue(show.delete());
+    assertTrue(actor.setLastModified(0));
+    Files.writeString(
+        schema.toPath(),
+        content.replace("stars: Int", "stars: Int\n  # new field\n  votes: Int\n"));
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+
+    assertTrue(Files.readString(rating.toPath()).contains("votes"));
+    assertTrue(show.exists(), "Should regenerate a type that references the changed type");
+    assertEquals(
+        0, actor.lastModified(), "Should not regenerate an unchanged type in the same file");
+  }
+
+  @SneakyThrows
+  @Test
+  void testRemovedTypePrunesGeneratedFiles() {
+    File schemaDir = new File(outputDir, "schema").getAbsoluteFile();
+    schemaDir.mkdirs();
+    File schema = new File(schemaDir, "schema.graphqls");
+    Files.writeString(
+        schema.toPath(),
+        "type Query { shows: [Show] }\ntype Show { title: String }\ntype Actor { name: String }");
+    File actorSchema = new File(schemaDir, "actor.graphqls");
+    Files.writeString(actorSchema.toPath(), "enum Role { LEAD EXTRA }");
+
+    TestCodegenProvider config = new TestCodegenProvider();
+    config.setSchemaPaths(Set.of(schemaDir));
+    config.setOutputDir(outputDir);
+    config.setSchemaManifestOutputDir(outputDir);
+    config.setOnlyGenerateChanged(true);
+
+    File show = new File(outputDir, "com/example/types/Show.java");
+    File actor = new File(outputDir, "com/example/types/Actor.java");
+    File role = new File(outputDir, "com/example/types/Role.java");
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+    assertTrue(show.exists() && actor.exists() && role.exists());
+
+    // a type removed from a file that still exists
+    Files.writeString(schema.toPath(), "type Query { shows: [Show] }\ntype Show { title: String }");
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+    assertFalse(actor.exists(), "Should delete the class of a removed type");
+    assertTrue(show.exists(), "Should keep the classes of remaining types");
+
+    // a removed schema file
+    assertTrue(actorSchema.delete());
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+    assertFalse(role.exists(), "Should delete the classes of a removed schema file");
+    assertTrue(show.exists(), "Should keep the classes of remaining types");
+  }
+
+  @SneakyThrows
+  @Test
+  void testOnlyWriteChangedLeavesIdenticalFilesUntouched() {
+    File schemaDir = new File(outputDir, "schema").getAbsoluteFile();
+    schemaDir.mkdirs();
+    File schema = new File(schemaDir, "schema.graphqls");
+    Files.writeString(schema.toPath(), "type Query { shows: [Show] }\ntype Show { title: String }");
+
+    TestCodegenProvider config = new TestCodegenProvider();
+    config.setSchemaPaths(Set.of(schemaDir));
+    config.setOutputDir(outputDir);
+    config.setOnlyGenerateChanged(false);
+
+    File show = new File(outputDir, "com/example/types/Show.java");
+    File constants = new File(outputDir, "com/example/DgsConstants.java");
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+    assertTrue(show.setLastModified(0) && constants.setLastModified(0));
+
+    // identical output: nothing is touched
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+    assertEquals(0, show.lastModified());
+    assertEquals(0, constants.lastModified());
+
+    // only the files whose content changed are rewritten
+    Files.writeString(
+        schema.toPath(), "type Query { shows: [Show] }\ntype Show { title: String year: Int }");
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+    assertNotEquals(0, show.lastModified());
+    assertNotEquals(0, constants.lastModified());
+    assertTrue(new File(outputDir, "com/example/client/ShowsGraphQLQuery.java").setLastModified(0));
+
+    config.setOnlyWriteChanged(false);
+    newExecutor().execute(config, new HashSet<>(), new File("."));
+    assertNotEquals(
+        0, new File(outputDir, "com/example/client/ShowsGraphQLQuery.java").lastModified());
+  }
+
+  private CodegenExecutor newExecutor() {
+
+    SchemaManifestService manifestService =
+        new SchemaManifestService(outputDir, new File(".").getAbsoluteFile());
+    schemaFileService =
+        new SchemaFileService(
+            outputDir, manifestService, remoteSchemaService, schemaTransformationService);
+    return new CodegenExecutor(schemaFileService, typeMappingService, logger);
+  }
+
+  private CodegenExecutor introspectionExecutor() {
+    SchemaManifestService manifestService = new SchemaManifestService(outputDir, outputDir);
+    schemaFileService =
+        new SchemaFileService(
+            outputDir, manifestService, remoteSchemaService, schemaTransformationService);
+    return new CodegenExecutor(schemaFileService, typeMappingService, logger);
+  }
+
+  private static File writeSchema(File file, String schema) throws IOException {
+    Files.createDirectories(file.getParentFile().toPath());
+    Files.writeString(file.toPath(), schema);
+    return file;
+  }
+
   private void deleteDirectory(File directory) {
+
     File[] files = directory.listFiles();
     if (files != null) {
       for (File file : files) {
@@ -0,0 +1,67 @@
+package io.github.deweyjose.graphqlcodegen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.deweyjose.graphqlcodegen.CodegenPhaseReport.Phase;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class CodegenPhaseReportTest {
+  private static final int ALLOCATION = 64 * 1024 * 1024;
+
+  @Test
+  void testParallelPhaseCountsTerminatedWorkerThreads() {
+    CodegenPhaseReport report = new CodegenPhaseReport("com.example:test");
+
+    int length =
+        report.measureParallel(
+            "pool",
+            () -> {
+              ExecutorService executor = Executors.newFixedThreadPool(2);
+              try {
+                return executor
+                    .submit(CodegenPhaseReport.worker(() -> new byte[ALLOCATION].length))
+                    .get();
+              } finally {
+                executor.shutdownNow();
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+              }
+            });
+
+    assertEquals(ALLOCATION, length);
+    Phase phase = report.getPhases().get(0);
+    assertTrue(phase.parallel());
+    assertTrue(phase.allocatedBytes() >= ALLOCATION, "allocated " + phase.allocatedBytes());
+    assertTrue(phase.cpuNanos() > 0);
+  }
+
+  @Test
+  void testParallelPhaseCountsLiveThreads() {
+    CodegenPhaseReport report = new CodegenPhaseReport("com.example:test");
+
+    report.measureParallel(
+        "stream",
+        () ->
+            IntStream.range(0, 8)
+                .parallel()
+                .forEach(i -> assertEquals(ALLOCATION / 8, new byte[ALLOCATION / 8].length)));
+
+    assertTrue(report.getPhases().get(0).allocatedBytes() >= ALLOCATION);
+  }
+
+  @Test
+  void testSerialPhaseMeasuresCallingThread() {
+    CodegenPhaseReport report = new CodegenPhaseReport("com.example:test");
+
+    report.measure("serial", () -> assertEquals(ALLOCATION, new byte[ALLOCATION].length));
+
+    Phase phase = report.getPhases().get(0);
+    assertFalse(phase.parallel());
+    assertTrue(phase.allocatedBytes() >= ALLOCATION);
+  }
+}
@@ -0,0 +1,227 @@
+package io.github.deweyjose.graphqlcodegen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import io.github.deweyjose.graphqlcodegen.services.SchemaFileService;
+import io.github.deweyjose.graphqlcodegen.services.SchemaManifestService;
+import io.github.deweyjose.graphqlcodegen.services.TypeMappingService;
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import lombok.SneakyThrows;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Runs the whole plugin pipeline on large synthetic schemas and fails when a build exceeds its time
+ * or heap budget. Tagged {@code scale} and excluded from the default build; run with {@code mvn
+ * test -P scale-tests}, which also caps the heap.
+ *
+ * <p>Each size runs a full build, an incremental build after editing one file, and a build in which
+ * nothing changed. The client API is not generated: its projections follow every path through the
+ * type graph, so on these densely connected schemas the time would be spent in the codegen library
+ * rather than in the plugin.
+ *
+ * <p>The heap budget applies to the largest heap still in use after a major garbage collection,
+ * taken from the collector's notifications: the live set at that moment. Heap use at any other
+ * time, even right after a minor collection, includes garbage the old generation has not reclaimed
+ * yet, and grows with the cap rather than with what the plugin retains. The profile runs the serial
+ * collector so that every old generation collection is reported as a major one.
+ *
+ * <p>The budgets are about twice the values measured on a single core with the capped heap, so that
+ * only regressions fail, not noisy timings. The exception is the 50k type heap budget: the build
+ * keeps about 3 GB live while generating, so the budget is 10% over that, and the cap is 4 GB to
+ * keep the collector from thrashing below it.
+ */
+@Tag("scale")
+class SchemaScaleTest {
+  private static final Logger LOGGER = new Slf4jLogger();
+
+  /** Reports the measurements, which the quiet pipeline logger would drop. */
+  private static final Logger RESULTS = new MavenLogger(new SystemStreamLog());
+
+  static Stream<Arguments> budgets() {
+    return Stream.of(
+        Arguments.of(1_000, Duration.ofSeconds(10), Duration.ofSeconds(5), 128),
+        Arguments.of(10_000, Duration.ofSeconds(30), Duration.ofSeconds(20), 1024),
+        Arguments.of(50_000, Duration.ofMinutes(7), Duration.ofMinutes(5), 3328));
+  }
+
+  @ParameterizedTest(name = "{0} types")
+  @MethodSource("budgets")
+  @SneakyThrows
+  void pipelineStaysWithinBudget(
+      int types, Duration fullBuildBudget, Duration incrementalBuildBudget, long heapMegabytes) {
+    File dir = new File("target/scale-test-" + types).getAbsoluteFile();
+    delete(dir);
+    File schemaDir = new File(dir, "schema");
+    SyntheticSchema schema =
+        SyntheticSchema.builder()
+            .types(types)
+            .fanOut(3)
+            .interfaces(types / 100)
+            .unions(types / 100)
+            .extensions(types / 10)
+            .queryFields(100)
+            .files(types / 100)
+            .build();
+    schema.write(schemaDir);
+
+    HeapMonitor heap = new HeapMonitor();
+    Duration fullBuild = time(() -> execute(dir, schemaDir));
+    assertTrue(
+        new File(dir, "generated/com/example/types/Type" + (types - 1) + ".java").exists(),
+        "Should generate every type");
+
+    // add a field to one type: only the type and its dependents are regenerated
+    Files.writeString(
+        new File(schemaDir, "schema-1.graphqls").toPath(),
+        "\nextend type Type1 {\n  added: String\n}\n",
+        StandardOpenOption.APPEND);
+    Duration incrementalBuild = time(() -> execute(dir, schemaDir));
+    Duration upToDateBuild = time(() -> execute(dir, schemaDir));
+    long peakHeapMegabytes = heap.close() / (1024 * 1024);
+
+    RESULTS.info(
+        "{} types: full {} ms, incremental {} ms, up-to-date {} ms, peak live heap {} MB",
+        types,
+        fullBuild.toMillis(),
+        incrementalBuild.toMillis(),
+        upToDateBuild.toMillis(),
+        peakHeapMegabytes);
+    assertTrue(
+        Files.readString(new File(dir, "generated/com/example/types/Type1.java").toPath())
+            .contains("added"),
+        "Should regenerate the edited type");
+    assertBudget("full build", fullBuild, fullBuildBudget);
+    assertBudget("incremental build", incrementalBuild, incrementalBuildBudget);
+    assertBudget("up-to-date build", upToDateBuild, incrementalBuildBudget);
+    assertTrue(
+        peakHeapMegabytes <= heapMegabytes,
+        "peak live heap "
+            + peakHeapMegabytes
+            + " MB exceeds the budget of "
+            + heapMegabytes
+            + " MB");
+    assertEquals(
+        types / 100, schemaDir.listFiles().length, "Should leave the schema files in place");
+    delete(dir);
+  }
+
+  private static void execute(File dir, File schemaDir) {
+    SchemaFileService schemaFileService =
+        new SchemaFileService(
+            new File(dir, "generated"),
+            new SchemaManifestService(new File(dir, "manifest"), dir),
+            LOGGER);
+    TestCodegenProvider request = new TestCodegenProvider();
+    request.setSchemaPaths(Set.of(schemaDir));
+    request.setOutputDir(new File(dir, "generated"));
+    request.setSchemaManifestOutputDir(new File(dir, "manifest"));
+    request.setOnlyGenerateChanged(true);
+    request.setGenerateClientApi(false);
+    new CodegenExecutor(schemaFileService, new TypeMappingService(LOGGER), LOGGER)
+        .execute(request, Collections.emptySet(), dir);
+  }
+
+  private static Duration time(Runnable build) {
+    long start = System.nanoTime();
+    build.run();
+    return Duration.ofNanos(System.nanoTime() - start);
+  }
+
+  private static void assertBudget(String build, Duration actual, Duration budget) {
+    assertTrue(
+        actual.compareTo(budget) <= 0,
+        build
+            + " took "
+            + actual.toMillis()
+            + " ms, over the budget of "
+            + budget.toMillis()
+            + " ms");
+  }
+
+  /**
+   * Tracks the largest heap in use right after a major garbage collection. The pool usages of one
+   * notification are taken at the same moment, so unlike per-pool peaks they can be summed.
+   */
+  private static class HeapMonitor {
+    private final Set<String> heapPools =
+        ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .map(MemoryPoolMXBean::getName)
+            .collect(Collectors.toSet());
+    private final AtomicLong peak = new AtomicLong();
+    private final NotificationListener listener = (notification, handback) -> record(notification);
+
+    HeapMonitor() {
+      System.gc();
+      for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+        ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+      }
+    }
+
+    private void record(Notification notification) {
+      if (!notification
+          .getType()
+          .equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+        return;
+      }
+      GarbageCollectionNotificationInfo info =
+          GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+      if (!info.getGcAction().equals("end of major GC")) {
+        return;
+      }
+      long used =
+          info.getGcInfo().getMemoryUsageAfterGc().entrySet().stream()
+              .filter(pool -> heapPools.contains(pool.getKey()))
+              .mapToLong(pool -> pool.getValue().getUsed())
+              .sum();
+      peak.accumulateAndGet(used, Math::max);
+    }
+
+    /**
+     * Stops tracking.
+     *
+     * @return the largest heap in use after a major collection, in bytes
+     */
+    @SneakyThrows
+    long close() {
+      for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+        ((NotificationEmitter) collector).removeNotificationListener(listener);
+      }
+      return peak.get();
+    }
+  }
+
+  @SneakyThrows
+  private static void delete(File dir) {
+    if (!dir.exists()) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(dir.toPath())) {
+      paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+}
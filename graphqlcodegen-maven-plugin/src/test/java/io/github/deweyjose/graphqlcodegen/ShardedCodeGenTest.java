@@ -0,0 +1,164 @@
+package io.github.deweyjose.graphqlcodegen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.netflix.graphql.dgs.codegen.CodeGen;
+import com.netflix.graphql.dgs.codegen.CodeGenConfig;
+import com.netflix.graphql.dgs.codegen.CodeGenResult;
+import io.github.deweyjose.graphqlcodegen.ShardedCodeGen.RootFields;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ShardedCodeGenTest {
+
+  private static final String SCHEMA =
+      """
+      type Query {
+        shows(titleFilter: String): [Show]
+        show(id: ID!): Show
+        reviews(filter: ReviewFilter): [Review]
+      }
+
+      type Mutation {
+        shows(input: ShowInput): Show
+        addReview(input: ReviewInput): Review
+      }
+
+      type Subscription {
+        reviewAdded(showId: ID!): Review
+      }
+
+      interface Node {
+        id: ID!
+      }
+
+      type Show implements Node {
+        id: ID!
+        title: String
+        genre: Genre
+        reviews: [Review]
+      }
+
+      type Review {
+        stars: Int
+        author: Person
+      }
+
+      type Person {
+        name: String
+      }
+
+      union SearchResult = Show | Person
+
+      enum Genre {
+        DRAMA
+        COMEDY
+      }
+
+      input ShowInput {
+        title: String
+        genre: Genre
+      }
+
+      input ReviewInput {
+        showId: ID!
+        stars: Int
+      }
+
+      input ReviewFilter {
+        minStars: Int
+      }
+      """;
+
+  @TempDir Path tempDir;
+
+  @Test
+  void testShardedOutputMatchesSingleRun() {
+    TestCodegenProvider request = new TestCodegenProvider();
+    request.setGenerateClientApi(true);
+    request.setGenerateDocs(true);
+    CodeGenConfigBuilder builder = builder(request);
+
+    CodeGenResult expected = new CodeGen(builder.build()).generate();
+    CodeGenConfig config = builder.build();
+    ShardedCodeGen sharded = new ShardedCodeGen(new Slf4jLogger(), 3);
+    assertEquals(5, sharded.shards(builder, config).size());
+    CodeGenResult actual = sharded.generate(builder, config);
+
+    assertEquals(sources(expected), sources(actual));
+    assertEquals(expected.getDocFiles().size(), actual.getDocFiles().size());
+    assertTrue(sources(actual).containsKey("com.example.client.ShowsGraphQLMutation"));
+  }
+
+  @Test
+  void testUnshardableConfigRunsOnce() {
+    TestCodegenProvider request = new TestCodegenProvider();
+    request.setGenerateClientApi(true);
+    request.setGenerateDataTypes(false);
+    CodeGenConfigBuilder builder = builder(request);
+    CodeGenConfig config = builder.build();
+
+    assertEquals(List.of(config), new ShardedCodeGen(new Slf4jLogger(), 4).shards(builder, config));
+  }
+
+  @Test
+  void testPartitionKeepsSameNamedRootFieldsTogether() {
+    TestCodegenProvider request = new TestCodegenProvider();
+    request.setGenerateClientApi(true);
+    CodeGenConfig config = builder(request).build();
+
+    List<RootFields> partitions = ShardedCodeGen.partitionRootFields(config, 2);
+
+    assertEquals(2, partitions.size());
+    assertEquals(
+        new RootFields(Set.of("reviews", "shows"), Set.of("addReview", "shows"), Set.of()),
+        partitions.get(0));
+    assertEquals(
+        new RootFields(Set.of("show"), Set.of(), Set.of("reviewAdded")), partitions.get(1));
+  }
+
+  @Test
+  void testPartitionCombinesSchemaFilesAndInlineSchemas() {
+    TestCodegenProvider request = new TestCodegenProvider();
+    request.setGenerateClientApi(true);
+    CodeGenConfig config =
+        builder(request).setSchemas(Set.of("extend type Query { episodes: [String] }")).build();
+
+    List<RootFields> partitions = ShardedCodeGen.partitionRootFields(config, 1);
+
+    assertEquals(
+        new RootFields(
+            Set.of("episodes", "reviews", "show", "shows"),
+            Set.of("addReview", "shows"),
+            Set.of("reviewAdded")),
+        partitions.get(0));
+  }
+
+  @SneakyThrows
+  private CodeGenConfigBuilder builder(TestCodegenProvider request) {
+    Path schema = tempDir.resolve("schema.graphqls");
+    Files.writeString(schema, SCHEMA);
+    return CodegenExecutor.newConfigBuilder(request, Collections.emptyList(), Map.of())
+        .setSchemaFiles(Set.of(schema.toFile()))
+        .setWriteToFiles(false);
+  }
+
+  private static Map<String, String> sources(CodeGenResult result) {
+    Map<String, String> sources = new TreeMap<>();
+    result
+        .javaSources()
+        .forEach(
+            file ->
+                sources.put(file.packageName() + "." + file.typeSpec().name(), file.toString()));
+    return sources;
+  }
+}
@@ -0,0 +1,166 @@
+package io.github.deweyjose.graphqlcodegen;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.introspection.IntrospectionQuery;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.UnExecutableSchemaGenerator;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+/**
+ * Deterministic synthetic schemas for benchmarks and scale tests. The same settings always produce
+ * the same SDL, so runs are comparable across builds.
+ *
+ * <p>Type {@code Type<i>} has an id, a name and {@link #fanOut} fields referencing other types,
+ * alternating between single and list references. With {@link #interfaces} set, each type
+ * implements one of {@code Node<k>}, which declares the id and name. Each {@code Union<k>} has
+ * {@link #unionMembers} members, and the first {@link #extensions} types are extended with an extra
+ * field in the next file, so changes cross file boundaries. The query type has a field for the
+ * first {@link #queryFields} types and one per union.
+ *
+ * <p>Types are dealt round-robin over {@link #files} files, together with the interfaces, unions
+ * and extensions of the same index. The first file also holds the query type and, when {@link
+ * #queryTypeName} is not {@code Query}, the schema definition naming it.
+ */
+@Builder
+@Getter
+public class SyntheticSchema {
+  /** The number of object types. */
+  @Builder.Default private final int types = 100;
+
+  /** The number of fields of each type that reference other types. */
+  @Builder.Default private final int fanOut = 2;
+
+  /** The number of interfaces the types implement, none by default. */
+  @Builder.Default private final int interfaces = 0;
+
+  /** The number of unions. */
+  @Builder.Default private final int unions = 0;
+
+  /** The number of members of each union. */
+  @Builder.Default private final int unionMembers = 3;
+
+  /** The number of types extended by a type extension in another file. */
+  @Builder.Default private final int extensions = 0;
+
+  /** The number of types that get a query field, capped at the number of types. */
+  @Builder.Default private final int queryFields = Integer.MAX_VALUE;
+
+  /** The number of files the schema is spread over. */
+  @Builder.Default private final int files = 1;
+
+  /** The name of the query type. */
+  @Builder.Default private final String queryTypeName = "Query";
+
+  /**
+   * Returns the whole schema as a single SDL document.
+   *
+   * @return the schema
+   */
+  public String sdl() {
+    StringBuilder sdl = new StringBuilder();
+    for (int file = 0; file < files; file++) {
+      sdl.append(sdl(file));
+    }
+    return sdl.toString();
+  }
+
+  /**
+   * Returns the part of the schema that belongs in one file.
+   *
+   * @param file the file index, from 0 to {@link #files} - 1
+   * @return the SDL of the file
+   */
+  public String sdl(int file) {
+    StringBuilder sdl = new StringBuilder();
+    if (file == 0) {
+      if (!"Query".equals(queryTypeName)) {
+        sdl.append("schema {\n  query: ").append(queryTypeName).append("\n}\n\n");
+      }
+      sdl.append("type ").append(queryTypeName).append(" {\n");
+      for (int i = 0; i < Math.min(types, queryFields); i++) {
+        sdl.append("  type").append(i).append("(id: ID!): Type").append(i).append('\n');
+      }
+      for (int u = 0; u < unions; u++) {
+        sdl.append("  search").append(u).append("(text: String): [Union").append(u).append("]\n");
+      }
+      sdl.append("}\n\n");
+    }
+    for (int k = file; k < interfaces; k += files) {
+      sdl.append("interface Node").append(k).append(" {\n  id: ID!\n  name: String\n}\n\n");
+    }
+    for (int u = file; u < unions; u += files) {
+      sdl.append("union Union").append(u).append(" =");
+      for (int m = 0; m < unionMembers; m++) {
+        sdl.append(m == 0 ? " " : " | ").append("Type").append(reference(u, m));
+      }
+      sdl.append("\n\n");
+    }
+    for (int i = file; i < types; i += files) {
+      sdl.append("type Type").append(i);
+      if (interfaces > 0) {
+        sdl.append(" implements Node").append(i % interfaces);
+      }
+      sdl.append(" {\n");
+      sdl.append("  id: ID!\n");
+      sdl.append("  name: String\n");
+      for (int f = 0; f < fanOut; f++) {
+        String target = "Type" + reference(i, f);
+        sdl.append("  ref")
+            .append(f)
+            .append(": ")
+            .append(f % 2 == 0 ? target : "[" + target + "]")
+            .append('\n');
+      }
+      sdl.append("}\n\n");
+    }
+    for (int i = (file + files - 1) % files; i < extensions && i < types; i += files) {
+      sdl.append("extend type Type").append(i).append(" {\n  extra: String\n}\n\n");
+    }
+    return sdl.toString();
+  }
+
+  /**
+   * Writes the schema to {@link #files} files named {@code schema-<n>.graphqls}.
+   *
+   * @param dir the directory to write to
+   * @return the written files
+   */
+  @SneakyThrows
+  public List<File> write(File dir) {
+    dir.mkdirs();
+    List<File> written = new ArrayList<>();
+    for (int file = 0; file < files; file++) {
+      File schemaFile = new File(dir, "schema-" + file + ".graphqls");
+      Files.writeString(schemaFile.toPath(), sdl(file));
+      written.add(schemaFile);
+    }
+    return written;
+  }
+
+  /**
+   * Runs the standard introspection query against the schema.
+   *
+   * @return the introspection response, with the result under {@code data}
+   */
+  public Map<String, Object> introspection() {
+    GraphQLSchema schema =
+        UnExecutableSchemaGenerator.makeUnExecutableSchema(new SchemaParser().parse(sdl()));
+    ExecutionResult result =
+        GraphQL.newGraphQL(schema).build().execute(IntrospectionQuery.INTROSPECTION_QUERY);
+    return Map.of("data", result.getData());
+  }
+
+  private int reference(int type, int field) {
+    // a fixed stride spreads references over the whole schema without randomness
+    return (int) ((type * 31L + field * 7L + 1) % types);
+  }
+}
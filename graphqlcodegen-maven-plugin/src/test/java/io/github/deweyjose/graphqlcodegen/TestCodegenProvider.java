@@ -11,9 +11,13 @@ import java.util.Map;
 import java.util.Set;
 
 public class TestCodegenProvider implements CodegenConfigProvider {
+  private String projectId = "com.example:test";
   private Set<File> schemaPaths = new HashSet<>();
+  private List<String> schemaIncludes = Collections.emptyList();
+  private List<String> schemaExcludes = Collections.emptyList();
   private Set<String> schemaJarFilesFromDependencies = new HashSet<>();
   private File schemaManifestOutputDir = new File("target/test-schema-manifest");
+  private String schemaManifestHashAlgorithm = "SHA-256";
   private boolean onlyGenerateChanged = false;
   private List<String> typeMappingPropertiesFiles = Collections.emptyList();
   private List<String> localTypeMappingPropertiesFiles = Collections.emptyList();
@@ -21,6 +25,8 @@ public class TestCodegenProvider implements CodegenConfigProvider {
   private File outputDir = new File("target/generated-test-codegen");
   private File examplesOutputDir = outputDir;
   private boolean writeToFiles = true;
+  private boolean onlyWriteChanged = true;
+  private boolean parallelCodegen = false;
   private String packageName = "com.example";
   private String subPackageNameClient = "client";
   private String subPackageNameDatafetchers = "datafetchers";
@@ -71,6 +77,14 @@ public class TestCodegenProvider implements CodegenConfigProvider {
     this.schemaPaths = schemaPaths;
   }
 
+  public void setSchemaIncludes(List<String> schemaIncludes) {
+    this.schemaIncludes = schemaIncludes;
+  }
+
+  public void setSchemaExcludes(List<String> schemaExcludes) {
+    this.schemaExcludes = schemaExcludes;
+  }
+
   public void setOutputDir(File outputDir) {
     this.outputDir = outputDir;
     this.examplesOutputDir = outputDir;
@@ -88,10 +102,30 @@ public class TestCodegenProvider implements CodegenConfigProvider {
     this.onlyGenerateChanged = b;
   }
 
+  public void setOnlyWriteChanged(boolean onlyWriteChanged) {
+    this.onlyWriteChanged = onlyWriteChanged;
+  }
+
+  public void setParallelCodegen(boolean parallelCodegen) {
+    this.parallelCodegen = parallelCodegen;
+  }
+
+  public void setPackageName(String packageName) {
+    this.packageName = packageName;
+  }
+
   public void setIntrospectionRequests(List<IntrospectionRequest> introspectionRequests) {
     this.introspectionRequests = introspectionRequests;
   }
 
+  public void setGenerateClientApi(boolean generateClientApi) {
+    this.generateClientApi = generateClientApi;
+  }
+
+  public void setGenerateDocs(boolean generateDocs) {
+    this.generateDocs = generateDocs;
+  }
+
   public void setGenerateDataTypes(boolean generateDataTypes) {
     this.generateDataTypes = generateDataTypes;
   }
@@ -119,16 +153,41 @@ public class TestCodegenProvider implements CodegenConfigProvider {
     return schemaPaths;
   }
 
+  @Override
+  public List<String> getSchemaIncludes() {
+    return schemaIncludes;
+  }
+
+  @Override
+  public List<String> getSchemaExcludes() {
+    return schemaExcludes;
+  }
+
   @Override
   public Set<String> getSchemaJarFilesFromDependencies() {
+
     return schemaJarFilesFromDependencies;
   }
 
+  @Override
+  public String getProjectId() {
+    return projectId;
+  }
+
+  public void setProjectId(String projectId) {
+    this.projectId = projectId;
+  }
+
   @Override
   public File getSchemaManifestOutputDir() {
     return schemaManifestOutputDir;
   }
 
+  @Override
+  public String getSchemaManifestHashAlgorithm() {
+    return schemaManifestHashAlgorithm;
+  }
+
   @Override
   public boolean isOnlyGenerateChanged() {
     return onlyGenerateChanged;
@@ -164,8 +223,19 @@ public class TestCodegenProvider implements CodegenConfigProvider {
     return writeToFiles;
   }
 
+  @Override
+  public boolean isOnlyWriteChanged() {
+    return onlyWriteChanged;
+  }
+
+  @Override
+  public boolean isParallelCodegen() {
+    return parallelCodegen;
+  }
+
   @Override
   public String getPackageName() {
+
     return packageName;
   }
 
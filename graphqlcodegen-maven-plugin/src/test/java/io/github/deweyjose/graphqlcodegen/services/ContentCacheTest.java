@@ -0,0 +1,64 @@
+package io.github.deweyjose.graphqlcodegen.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ContentCacheTest {
+
+  @Test
+  void testGetLoadsOnce() {
+    ContentCache<String> cache = new ContentCache<>(100, String::length);
+    AtomicInteger loads = new AtomicInteger();
+
+    ContentCache.Loader<String> loader =
+        () -> {
+          loads.incrementAndGet();
+          return "value";
+        };
+
+    assertEquals("value", cache.get("key", loader));
+    assertEquals("value", cache.get("key", loader));
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void testNullIsNotCached() {
+    ContentCache<String> cache = new ContentCache<>(100, String::length);
+
+    assertNull(cache.get("key", () -> null));
+    assertEquals(0, cache.size());
+    assertEquals("value", cache.get("key", () -> "value"));
+  }
+
+  @Test
+  void testEvictsLeastRecentlyUsed() {
+    ContentCache<String> cache = new ContentCache<>(10, String::length);
+    cache.put("a", "aaaa");
+    cache.put("b", "bbbb");
+    cache.get("a", () -> "reloaded");
+    cache.put("c", "cccc");
+
+    assertEquals(2, cache.size());
+    assertEquals("aaaa", cache.get("a", () -> "reloaded"));
+    assertEquals("reloaded", cache.get("b", () -> "reloaded"));
+  }
+
+  @Test
+  void testValueHeavierThanMaximumIsNotCached() {
+    ContentCache<String> cache = new ContentCache<>(3, String::length);
+    cache.put("a", "aaaa");
+
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void testKey() {
+    assertEquals(ContentCache.key("a", 1), ContentCache.key("a", 1));
+    assertNotEquals(ContentCache.key("a", 1), ContentCache.key("a1"));
+    assertNotEquals(ContentCache.key("ab", "c"), ContentCache.key("a", "bc"));
+  }
+}
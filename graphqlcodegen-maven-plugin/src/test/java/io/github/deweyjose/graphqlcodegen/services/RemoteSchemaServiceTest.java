@@ -2,23 +2,37 @@ package io.github.deweyjose.graphqlcodegen.services;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeDefinitionRegistry;
 import io.github.deweyjose.graphqlcodegen.Slf4jLogger;
 import io.github.deweyjose.graphqlcodegen.TestUtils;
 import io.github.deweyjose.graphqlcodegen.services.RemoteSchemaService.IntrospectionOperation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.StringWriter;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class RemoteSchemaServiceTest {
   private Slf4jLogger logger;
@@ -116,6 +130,224 @@ class RemoteSchemaServiceTest {
     assertTrue(result.contains("directive @include"), "Should contain directive @include");
   }
 
+  @Test
+  void testDownloadIntrospectedSchemaFile_streamsSchema(@TempDir Path tempDir) throws Exception {
+    RemoteSchemaService service = new RemoteSchemaService(logger);
+    IntrospectionOperation operation =
+        IntrospectionOperation.builder()
+            .query(INTROSPECTION_QUERY)
+            .operationName("IntrospectionQuery")
+            .build();
+    File file = tempDir.resolve("remote-schemas/introspected.graphqls").toFile();
+
+    assertEquals(
+        file,
+        service.downloadIntrospectedSchemaFile(
+            baseUrl + "/introspect", operation, new HashMap<>(), file));
+
+    String streamed = Files.readString(file.toPath());
+    assertFalse(Files.exists(tempDir.resolve("remote-schemas/introspected.graphqls.tmp")));
+    assertTrue(streamed.contains("type Query"), "Should contain type Query");
+    assertTrue(streamed.contains("type Show"), "Should contain type Show");
+    assertTrue(streamed.contains("enum ErrorDetail"), "Should contain enum ErrorDetail");
+    assertTrue(streamed.contains("input ShowInput"), "Should contain input ShowInput");
+    assertTrue(streamed.contains("scalar _FieldSet"), "Should contain scalar _FieldSet");
+
+    // the same types as the in-memory conversion
+    String converted =
+        service.convertIntrospectionToSchema(
+            new ObjectMapper().readValue(INTROSPECTION_RESPONSE, new TypeReference<>() {}));
+    assertEquals(
+        new SchemaParser().parse(converted).types().keySet(),
+        new SchemaParser().parse(streamed).types().keySet());
+  }
+
+  @Test
+  void testDownloadIntrospectedSchemaFile_notFound(@TempDir Path tempDir) {
+    RemoteSchemaService service = new RemoteSchemaService(logger);
+    IntrospectionOperation operation =
+        IntrospectionOperation.builder().query(INTROSPECTION_QUERY).build();
+    File file = tempDir.resolve("introspected.graphqls").toFile();
+
+    Exception ex =
+        assertThrows(
+            IOException.class,
+            () ->
+                service.downloadIntrospectedSchemaFile(
+                    baseUrl + "/notfound", operation, new HashMap<>(), file));
+    assertTrue(ex.getMessage().contains("404"));
+    assertFalse(file.exists());
+  }
+
+  @Test
+  void testConvertIntrospectionToSchema_streamsCustomRootTypes() throws Exception {
+    String introspection =
+        """
+        {"data": {"__schema": {
+          "types": [
+            {"kind": "OBJECT", "name": "QueryRoot", "fields": [
+              {"name": "hello", "args": [],
+               "type": {"kind": "SCALAR", "name": "String", "ofType": null}}
+            ], "interfaces": []},
+            {"kind": "SCALAR", "name": "String"}
+          ],
+          "queryType": {"name": "QueryRoot"},
+          "mutationType": null,
+          "directives": []
+        }}}
+        """;
+    StringWriter schema = new StringWriter();
+
+    new RemoteSchemaService(logger)
+        .convertIntrospectionToSchema(
+            new ByteArrayInputStream(introspection.getBytes(StandardCharsets.UTF_8)), schema);
+
+    TypeDefinitionRegistry registry = new SchemaParser().parse(schema.toString());
+    assertTrue(registry.getTypeOrNull("QueryRoot") != null, "Should contain type QueryRoot");
+    assertEquals(
+        "QueryRoot",
+        registry
+            .schemaDefinition()
+            .orElseThrow()
+            .getOperationTypeDefinitions()
+            .get(0)
+            .getTypeName()
+            .getName());
+  }
+
+  @Test
+  void testConvertIntrospectionToSchema_noSchema() {
+    RemoteSchemaService service = new RemoteSchemaService(logger);
+    assertThrows(
+        IOException.class,
+        () ->
+            service.convertIntrospectionToSchema(
+                new ByteArrayInputStream(
+                    "{\"errors\": [{\"message\": \"denied\"}]}".getBytes(StandardCharsets.UTF_8)),
+                new StringWriter()));
+  }
+
+  @Test
+  void testDownloadRemoteSchemaFile_conditionalRequests(@TempDir Path tempDir) throws Exception {
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    List<String> receivedEtags = new ArrayList<>();
+    String[] schema = {GET_RESPONSE};
+    boolean[] ignoreValidators = {false};
+    server.createContext(
+        "/schema",
+        exchange -> {
+          String etag = "\"" + schema[0].hashCode() + "\"";
+          receivedEtags.add(exchange.getRequestHeaders().getFirst("If-None-Match"));
+          exchange.getResponseHeaders().add("ETag", etag);
+          if (!ignoreValidators[0]
+              && etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+          }
+          byte[] resp = schema[0].getBytes();
+          exchange.sendResponseHeaders(200, resp.length);
+          try (OutputStream os = exchange.getResponseBody()) {
+            os.write(resp);
+          }
+        });
+    server.start();
+    String url = "http://localhost:" + server.getAddress().getPort() + "/schema";
+    File file = tempDir.resolve("remote-schemas/schema.graphqls").toFile();
+
+    RemoteSchemaService service = new RemoteSchemaService(logger);
+    try {
+      assertEquals(file, service.downloadRemoteSchemaFile(url, file));
+      assertEquals(GET_RESPONSE, Files.readString(file.toPath()));
+      assertNull(receivedEtags.get(0));
+
+      // not modified: the cached file is kept
+      assertTrue(file.setLastModified(0));
+      service.downloadRemoteSchemaFile(url, file);
+      assertNotNull(receivedEtags.get(1));
+      assertEquals(0, file.lastModified());
+      assertEquals(GET_RESPONSE, Files.readString(file.toPath()));
+
+      // modified: the file is replaced
+      schema[0] = "type Query { hello: String }";
+      service.downloadRemoteSchemaFile(url, file);
+      assertEquals(schema[0], Files.readString(file.toPath()));
+
+      // sent again unchanged: the file keeps its last-modified time
+      ignoreValidators[0] = true;
+      assertTrue(file.setLastModified(0));
+      service.downloadRemoteSchemaFile(url, file);
+      assertEquals(0, file.lastModified());
+      assertEquals(schema[0], Files.readString(file.toPath()));
+
+      // written from elsewhere: the next download is unconditional
+      ignoreValidators[0] = false;
+      service.discardValidators(file);
+      service.downloadRemoteSchemaFile(url, file);
+      assertNull(receivedEtags.get(receivedEtags.size() - 1));
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  @Test
+  void testCompressedResponses(@TempDir Path tempDir) throws Exception {
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    List<String> acceptedEncodings = new ArrayList<>();
+    server.createContext(
+        "/",
+        exchange -> {
+          acceptedEncodings.add(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+          String encoding = exchange.getRequestURI().getPath().substring(1);
+          String body =
+              "POST".equals(exchange.getRequestMethod()) ? INTROSPECTION_RESPONSE : GET_RESPONSE;
+          ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+          try (OutputStream out =
+              encoding.equals("gzip")
+                  ? new GZIPOutputStream(compressed)
+                  : new DeflaterOutputStream(compressed)) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+          }
+          exchange.getResponseHeaders().add("Content-Encoding", encoding);
+          exchange.sendResponseHeaders(200, compressed.size());
+          try (OutputStream os = exchange.getResponseBody()) {
+            compressed.writeTo(os);
+          }
+        });
+    server.start();
+    String url = "http://localhost:" + server.getAddress().getPort();
+    IntrospectionOperation operation =
+        IntrospectionOperation.builder()
+            .query(INTROSPECTION_QUERY)
+            .operationName("IntrospectionQuery")
+            .build();
+
+    RemoteSchemaService service = new RemoteSchemaService(logger);
+    try {
+      assertEquals(GET_RESPONSE, service.getRemoteSchemaFile(url + "/gzip"));
+      assertEquals(GET_RESPONSE, service.getRemoteSchemaFile(url + "/deflate"));
+
+      File file = tempDir.resolve("schema.graphqls").toFile();
+      service.downloadRemoteSchemaFile(url + "/gzip", file);
+      assertEquals(GET_RESPONSE, Files.readString(file.toPath()));
+
+      File introspected = tempDir.resolve("introspected.graphqls").toFile();
+      service.downloadIntrospectedSchemaFile(
+          url + "/gzip", operation, new HashMap<>(), introspected);
+      assertTrue(Files.readString(introspected.toPath()).contains("type Show"));
+      assertTrue(
+          service
+              .getIntrospectedSchemaFile(url + "/deflate", operation, new HashMap<>())
+              .contains("type Show"));
+
+      assertEquals(5, acceptedEncodings.size());
+      acceptedEncodings.forEach(
+          accepted -> assertEquals(RemoteSchemaService.ACCEPT_ENCODING, accepted));
+    } finally {
+      server.stop(0);
+    }
+  }
+
   @Test
   void testGetRemoteSchemaFile_notFound() {
     RemoteSchemaService service = new RemoteSchemaService(logger);
@@ -0,0 +1,121 @@
+package io.github.deweyjose.graphqlcodegen.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SchemaDependencyGraphTest {
+
+  @TempDir Path tempDir;
+
+  @SneakyThrows
+  private File write(String name, String content) {
+    File file = tempDir.resolve(name).toFile();
+    Files.writeString(file.toPath(), content);
+    return file;
+  }
+
+  @Test
+  void testContributionsAndDependents() {
+    File show =
+        write(
+            "show.graphqls",
+            """
+            type Query { shows(filter: ShowFilter): [Show] }
+            type Show implements Node { id: ID! title: String @deprecated }
+            input ShowFilter { title: String }
+            """);
+    File node = write("node.graphqls", "interface Node { id: ID! }");
+    File search =
+        write(
+            "search.graphqls",
+            """
+            union SearchResult = Show | Actor
+            type Actor { name: String }
+            extend type Query { search: [SearchResult] }
+            """);
+
+    SchemaDependencyGraph graph = SchemaDependencyGraph.of(List.of(show, node, search));
+
+    assertTrue(graph.isComplete());
+    assertEquals(Set.of("Query", "Show", "ShowFilter", "Node"), graph.getContributions(show));
+    assertEquals(Set.of("SearchResult", "Show", "Actor", "Query"), graph.getContributions(search));
+    assertEquals(Set.of(show, search), graph.getContributors(Set.of("Show")));
+    assertEquals(Set.of("Node", "Show"), graph.withDependents(Set.of("Node")));
+    assertEquals(Set.of("ShowFilter", "Query"), graph.withDependents(Set.of("ShowFilter")));
+    assertEquals(
+        Set.of("Show", "Query", "SearchResult", "Node"), graph.withDependents(Set.of("Show")));
+    assertEquals(Set.of("Actor", "SearchResult"), graph.withDependents(Set.of("Actor")));
+    assertTrue(graph.withDependents(Set.of("@deprecated")).contains("Show"));
+    assertFalse(graph.definesSchema(show));
+  }
+
+  @Test
+  void testTypeHash() {
+    File a = write("a.graphqls", "type Show { title: String }\nunion Result = Show");
+    File b =
+        write("b.graphqls", "# a comment\ntype  Show {\n  title: String\n}\nunion Result = Show");
+    File c = write("c.graphqls", "type Show { title: String }\nunion Result = Actor");
+    File d = write("d.graphqls", "type Show { title: String rating: Int }\nunion Result = Show");
+
+    String hash = SchemaDependencyGraph.of(List.of(a)).typeHash("Show");
+    assertEquals(hash, SchemaDependencyGraph.of(List.of(b)).typeHash("Show"));
+    assertNotEquals(hash, SchemaDependencyGraph.of(List.of(c)).typeHash("Show"));
+    assertNotEquals(hash, SchemaDependencyGraph.of(List.of(d)).typeHash("Show"));
+    assertEquals(
+        SchemaDependencyGraph.of(List.of(a)).typeHash("Result"),
+        SchemaDependencyGraph.of(List.of(d)).typeHash("Result"));
+    assertNull(SchemaDependencyGraph.of(List.of(a)).typeHash("Missing"));
+  }
+
+  @Test
+  void testImplementationInAnotherFile() {
+    File node =
+        write("node.graphqls", "interface Node { id: ID! }\ntype A implements Node { id: ID! }");
+    File c = write("c.graphqls", "type C implements Node { id: ID! }");
+
+    SchemaDependencyGraph before = SchemaDependencyGraph.of(List.of(node));
+    SchemaDependencyGraph after = SchemaDependencyGraph.of(List.of(node, c));
+
+    assertEquals(Set.of("C", "Node"), after.getContributions(c));
+    assertEquals(Set.of(node, c), after.getContributors(Set.of("Node")));
+    assertTrue(after.withDependents(Set.of("C")).contains("Node"));
+    assertNotEquals(before.typeHash("Node"), after.typeHash("Node"));
+    assertEquals(before.typeHash("A"), after.typeHash("A"));
+  }
+
+  @Test
+  void testSchemaDefinition() {
+
+    File schema = write("schema.graphqls", "schema { query: RootQuery } type RootQuery { a: Int }");
+
+    SchemaDependencyGraph graph = SchemaDependencyGraph.of(List.of(schema));
+
+    assertTrue(graph.definesSchema(schema));
+    assertEquals(Set.of("RootQuery"), graph.getContributions(schema));
+  }
+
+  @Test
+  void testUnparsableAndMissingFiles() {
+    File broken = write("broken.graphqls", "type Query {");
+    File empty = write("empty.graphqls", "  ");
+    File missing = tempDir.resolve("missing.graphqls").toFile();
+
+    assertFalse(SchemaDependencyGraph.of(List.of(broken)).isComplete());
+
+    SchemaDependencyGraph graph = SchemaDependencyGraph.of(List.of(empty, missing));
+    assertTrue(graph.isComplete());
+    assertTrue(graph.getTypes().isEmpty());
+  }
+}
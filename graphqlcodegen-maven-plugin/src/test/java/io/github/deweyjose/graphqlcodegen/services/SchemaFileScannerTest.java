@@ -0,0 +1,74 @@
+package io.github.deweyjose.graphqlcodegen.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SchemaFileScannerTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void testScanFindsSchemaFilesRecursively() {
+    File root = file("root.graphqls");
+    File nested = file("a/nested.graphql");
+    File deep = file("a/b/c/deep.gqls");
+    file("a/readme.md");
+
+    Set<File> files = new SchemaFileScanner(List.of(), List.of()).scan(tempDir.toFile());
+
+    assertEquals(Set.of(root, nested, deep), files);
+  }
+
+  @Test
+  void testScanAppliesIncludesAndExcludes() {
+    File schema = file("schema/schema.graphqls");
+    File nestedSchema = file("schema/shows/shows.graphqls");
+    file("schema/fixtures/fixture.graphqls");
+    file("node_modules/lib/lib.graphqls");
+    file("ui/node_modules/lib/lib.graphqls");
+    file("other/other.graphqls");
+
+    Set<File> files =
+        new SchemaFileScanner(
+                List.of("schema/**"), List.of("**/node_modules/**", "schema/fixtures/**"))
+            .scan(tempDir.toFile());
+
+    assertEquals(Set.of(schema, nestedSchema), files);
+  }
+
+  @Test
+  void testScanExcludesFilesByName() {
+    File schema = file("schema.graphqls");
+    file("test-schema.graphqls");
+    file("nested/test-other.graphqls");
+
+    Set<File> files = new SchemaFileScanner(List.of(), List.of("**/test-*")).scan(tempDir.toFile());
+
+    assertEquals(Set.of(schema), files);
+  }
+
+  @Test
+  void testScanMissingDirectory() {
+    assertTrue(
+        new SchemaFileScanner(List.of(), List.of())
+            .scan(tempDir.resolve("missing").toFile())
+            .isEmpty());
+  }
+
+  @SneakyThrows
+  private File file(String path) {
+    Path file = tempDir.resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, "type Query { hello: String }");
+    return file.toFile();
+  }
+}
@@ -2,12 +2,16 @@ package io.github.deweyjose.graphqlcodegen.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -15,11 +19,16 @@ import static org.mockito.Mockito.when;
 import io.github.deweyjose.graphqlcodegen.TestUtils;
 import io.github.deweyjose.graphqlcodegen.parameters.IntrospectionRequest;
 import java.io.File;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import lombok.SneakyThrows;
 import org.apache.maven.artifact.Artifact;
 import org.junit.jupiter.api.BeforeEach;
@@ -91,8 +100,95 @@ class SchemaFileServiceTest {
     assertTrue(result.contains(new File("b.graphqls")));
   }
 
+  @SneakyThrows
+  @Test
+  void testFilterChangedSchemaFilesIncludesDependents(@TempDir Path tempDir) {
+    File show = tempDir.resolve("show.graphqls").toFile();
+    Files.writeString(show.toPath(), "type Show { id: ID! rating: Rating }");
+    File rating = tempDir.resolve("rating.graphqls").toFile();
+    Files.writeString(rating.toPath(), "type Rating { stars: Int }");
+    File actor = tempDir.resolve("actor.graphqls").toFile();
+    Files.writeString(actor.toPath(), "type Actor { name: String }");
+    File review = tempDir.resolve("review.graphqls").toFile();
+    Files.writeString(review.toPath(), "type Review { text: String }");
+    Set<File> all = Set.of(show, rating, actor, review);
+
+    SchemaDependencyGraph graph = SchemaDependencyGraph.of(all);
+    Map<String, String> recordedHashes = new HashMap<>();
+    graph.getTypes().forEach(type -> recordedHashes.put(type, graph.typeHash(type)));
+    when(schemaManifestService.getRecordedTypeHash(anyString()))
+        .thenAnswer(invocation -> recordedHashes.get(invocation.<String>getArgument(0)));
+
+    // review.graphqls used to extend Actor: Actor changed, Review did not
+    recordedHashes.put("Actor", "old");
+    when(schemaManifestService.getChangedFiles()).thenReturn(Set.of(review));
+    when(schemaManifestService.getRecordedTypes(review)).thenReturn(Set.of("Actor", "Review"));
+    schemaFileService.setSchemaPaths(all);
+    schemaFileService.filterChangedSchemaFiles();
+
+    assertEquals(Set.of(actor), schemaFileService.getSchemaPaths());
+    assertEquals(Set.of("Rating", "Review", "Show"), schemaFileService.getUnchangedTypes());
+
+    // Rating changed: Show references it
+    recordedHashes.put("Actor", graph.typeHash("Actor"));
+    recordedHashes.put("Rating", "old");
+    when(schemaManifestService.getChangedFiles()).thenReturn(Set.of(rating));
+    schemaFileService.setSchemaPaths(all);
+    schemaFileService.filterChangedSchemaFiles();
+
+    assertEquals(Set.of(show, rating), schemaFileService.getSchemaPaths());
+    assertEquals(Set.of(actor, review), schemaFileService.getUnchangedSchemaPaths());
+    assertEquals(Set.of("Actor", "Review"), schemaFileService.getUnchangedTypes());
+    assertEquals(all, schemaFileService.getContextSchemaPaths());
+
+    // rating.graphqls touched without changing a definition
+    recordedHashes.put("Rating", graph.typeHash("Rating"));
+    schemaFileService.setSchemaPaths(all);
+    schemaFileService.filterChangedSchemaFiles();
+
+    assertTrue(schemaFileService.getSchemaPaths().isEmpty());
+  }
+
+  @SneakyThrows
+  @Test
+  void testFilterChangedSchemaFilesIncludesInterfaceOfNewImplementation(@TempDir Path tempDir) {
+    File node = tempDir.resolve("node.graphqls").toFile();
+    Files.writeString(
+        node.toPath(), "interface Node { id: ID! }\ntype A implements Node { id: ID! }");
+    File actor = tempDir.resolve("actor.graphqls").toFile();
+    Files.writeString(actor.toPath(), "type Actor { name: String }");
+    SchemaDependencyGraph before = SchemaDependencyGraph.of(Set.of(node, actor));
+    Map<String, String> recordedHashes = new HashMap<>();
+    before.getTypes().forEach(type -> recordedHashes.put(type, before.typeHash(type)));
+    when(schemaManifestService.getRecordedTypeHash(anyString()))
+        .thenAnswer(invocation -> recordedHashes.get(invocation.<String>getArgument(0)));
+
+    // type C implements Node is added in a new file
+    File c = tempDir.resolve("c.graphqls").toFile();
+    Files.writeString(c.toPath(), "type C implements Node { id: ID! }");
+    when(schemaManifestService.getChangedFiles()).thenReturn(Set.of(c));
+    schemaFileService.setSchemaPaths(Set.of(node, actor, c));
+    schemaFileService.filterChangedSchemaFiles();
+
+    assertEquals(Set.of(node, c), schemaFileService.getSchemaPaths());
+    assertEquals(Set.of("Actor"), schemaFileService.getUnchangedTypes());
+
+    // and removed again
+    SchemaDependencyGraph after = SchemaDependencyGraph.of(Set.of(node, actor, c));
+    after.getTypes().forEach(type -> recordedHashes.put(type, after.typeHash(type)));
+    when(schemaManifestService.getChangedFiles()).thenReturn(Collections.emptySet());
+    when(schemaManifestService.getRemovedFileTypes()).thenReturn(Set.of("C", "Node"));
+    schemaFileService.setSchemaPaths(Set.of(node, actor));
+    schemaFileService.filterChangedSchemaFiles();
+
+    assertEquals(Set.of(node), schemaFileService.getSchemaPaths());
+    assertEquals(Set.of("C"), schemaFileService.getRemovedTypes());
+    assertEquals(Set.of("Actor"), schemaFileService.getUnchangedTypes());
+  }
+
   @Test
   void testVerifySchemaFilesThrowsOnEmpty() {
+
     assertThrows(IllegalArgumentException.class, () -> schemaFileService.checkHasSchemaFiles());
   }
 
@@ -162,17 +258,246 @@ class SchemaFileServiceTest {
   void testLoadSchemaUrls_createsFileWithContent(@TempDir Path tempDir) {
     String url = TestUtils.TEST_SCHEMA_URL;
     String expectedContent = "type Query { hello: String }";
-    when(remoteSchemaService.getRemoteSchemaFile(url)).thenReturn(expectedContent);
+    when(remoteSchemaService.downloadRemoteSchemaFile(eq(url), any(File.class)))
+        .thenAnswer(
+            invocation -> {
+              File file = invocation.getArgument(1);
+              file.getParentFile().mkdirs();
+              Files.writeString(file.toPath(), expectedContent);
+              return file;
+            });
     schemaFileService.loadSchemaUrls(java.util.List.of(url));
     File outFile = schemaFileService.getSchemaPaths().iterator().next();
     assertTrue(outFile.exists());
+    assertTrue(outFile.getPath().contains("remote-schemas"));
     String content = java.nio.file.Files.readString(outFile.toPath());
     assertEquals(expectedContent, content);
-    verify(remoteSchemaService, times(1)).getRemoteSchemaFile(url);
+    verify(remoteSchemaService, times(1)).downloadRemoteSchemaFile(eq(url), any(File.class));
+  }
+
+  @Test
+  @SneakyThrows
+  void testLoadSchemaUrls_sharesResultsWithinCacheScope(@TempDir Path tempDir) {
+    String url = "http://example.com/shared.graphqls";
+    String expectedContent = "type Query { shared: String }";
+    when(remoteSchemaService.downloadRemoteSchemaFile(eq(url), any(File.class)))
+        .thenAnswer(
+            invocation -> {
+              File file = invocation.getArgument(1);
+              file.getParentFile().mkdirs();
+              Files.writeString(file.toPath(), expectedContent);
+              return file;
+            });
+    String scope = "build@" + System.nanoTime();
+
+    SchemaFileService first =
+        new SchemaFileService(
+            tempDir.resolve("first").toFile(),
+            schemaManifestService,
+            remoteSchemaService,
+            schemaTransformationService);
+    first.setRemoteCacheScope(scope);
+    first.loadSchemaUrls(List.of(url));
+    SchemaFileService second =
+        new SchemaFileService(
+            tempDir.resolve("second").toFile(),
+            schemaManifestService,
+            remoteSchemaService,
+            schemaTransformationService);
+    second.setRemoteCacheScope(scope);
+    second.loadSchemaUrls(List.of(url));
+
+    verify(remoteSchemaService, times(1)).downloadRemoteSchemaFile(eq(url), any(File.class));
+    File firstFile = first.getSchemaPaths().iterator().next();
+    File secondFile = second.getSchemaPaths().iterator().next();
+    assertTrue(secondFile.toPath().startsWith(tempDir.resolve("second")));
+    assertEquals(expectedContent, Files.readString(secondFile.toPath()));
+    assertEquals(
+        firstFile.toPath(),
+        SchemaFileService.REMOTE_SCHEMAS.get(ContentCache.key(scope, url), () -> null));
+
+    // the first execution's output was cleaned: fetched again
+    assertTrue(firstFile.delete());
+    SchemaFileService third =
+        new SchemaFileService(
+            tempDir.resolve("third").toFile(),
+            schemaManifestService,
+            remoteSchemaService,
+            schemaTransformationService);
+    third.setRemoteCacheScope(scope);
+    third.loadSchemaUrls(List.of(url));
+
+    verify(remoteSchemaService, times(2)).downloadRemoteSchemaFile(eq(url), any(File.class));
+    assertEquals(
+        expectedContent, Files.readString(third.getSchemaPaths().iterator().next().toPath()));
+  }
+
+  @Test
+  @SneakyThrows
+  void testLoadSchemaUrls_schemaLock(@TempDir Path tempDir) {
+    String url = "http://example.com/locked.graphqls";
+    String[] schema = {"type Query { locked: String }"};
+    when(remoteSchemaService.downloadRemoteSchemaFile(eq(url), any(File.class)))
+        .thenAnswer(
+            invocation -> {
+              File file = invocation.getArgument(1);
+              file.getParentFile().mkdirs();
+              Files.writeString(file.toPath(), schema[0]);
+              return file;
+            });
+    File lockFile = tempDir.resolve("graphqlcodegen.lock").toFile();
+    File cacheDir = tempDir.resolve("cache").toFile();
+
+    // first build: fetched, locked and cached
+    SchemaFileService first = lockedService(tempDir.resolve("first"), lockFile, cacheDir);
+    first.loadSchemaUrls(List.of(url));
+    assertTrue(lockFile.isFile());
+    assertTrue(Files.readString(lockFile.toPath()).contains("url.http"));
+    assertEquals(1, cacheDir.listFiles().length);
+
+    // clean offline build: served from the cache
+    SchemaFileService offline = lockedService(tempDir.resolve("offline"), lockFile, cacheDir);
+    offline.setOffline(true);
+    schema[0] = "type Query { changed: String }";
+    offline.loadSchemaUrls(List.of(url));
+    verify(remoteSchemaService, times(1)).downloadRemoteSchemaFile(eq(url), any(File.class));
+    File offlineFile = offline.getSchemaPaths().iterator().next();
+    assertEquals("type Query { locked: String }", Files.readString(offlineFile.toPath()));
+    verify(remoteSchemaService).discardValidators(offlineFile);
+
+    // refresh: fetched again and relocked
+    String locked = Files.readString(lockFile.toPath());
+    SchemaFileService refresh = lockedService(tempDir.resolve("refresh"), lockFile, cacheDir);
+    refresh.setRefreshRemoteSchemas(true);
+    refresh.loadSchemaUrls(List.of(url));
+    verify(remoteSchemaService, times(2)).downloadRemoteSchemaFile(eq(url), any(File.class));
+    assertNotEquals(locked, Files.readString(lockFile.toPath()));
+    assertEquals(2, cacheDir.listFiles().length);
+  }
+
+  @Test
+  @SneakyThrows
+  void testLoadSchemaUrls_schemaLockOfflineWithoutLockedSchema(@TempDir Path tempDir) {
+    SchemaFileService offline =
+        lockedService(
+            tempDir.resolve("out"),
+            tempDir.resolve("graphqlcodegen.lock").toFile(),
+            tempDir.resolve("cache").toFile());
+    offline.setOffline(true);
+
+    assertThrows(
+        IllegalStateException.class,
+        () -> offline.loadSchemaUrls(List.of("http://example.com/unlocked.graphqls")));
+    verify(remoteSchemaService, never()).downloadRemoteSchemaFile(anyString(), any(File.class));
+  }
+
+  @Test
+  @SneakyThrows
+  void testLoadSchemaUrls_schemaLockColdCacheMismatch(@TempDir Path tempDir) {
+    String url = "http://example.com/locked.graphqls";
+    String[] schema = {"type Query { locked: String }"};
+    when(remoteSchemaService.downloadRemoteSchemaFile(eq(url), any(File.class)))
+        .thenAnswer(
+            invocation -> {
+              File file = invocation.getArgument(1);
+              file.getParentFile().mkdirs();
+              Files.writeString(file.toPath(), schema[0]);
+              return file;
+            });
+    File lockFile = tempDir.resolve("graphqlcodegen.lock").toFile();
+    lockedService(tempDir.resolve("first"), lockFile, tempDir.resolve("cache").toFile())
+        .loadSchemaUrls(List.of(url));
+    String locked = Files.readString(lockFile.toPath());
+
+    // fresh agent with an empty cache: the schema is fetched and no longer matches the lock
+    schema[0] = "type Query { changed: String }";
+    SchemaFileService cold =
+        lockedService(tempDir.resolve("cold"), lockFile, tempDir.resolve("cold-cache").toFile());
+    IllegalStateException e =
+        assertThrows(IllegalStateException.class, () -> cold.loadSchemaUrls(List.of(url)));
+    assertTrue(e.getMessage().contains("refreshSchemaLock"));
+    assertEquals(locked, Files.readString(lockFile.toPath()));
+
+    // an unchanged schema is verified and cached
+    schema[0] = "type Query { locked: String }";
+    File coldCache = tempDir.resolve("cold-cache-2").toFile();
+    lockedService(tempDir.resolve("cold-2"), lockFile, coldCache).loadSchemaUrls(List.of(url));
+    assertEquals(locked, Files.readString(lockFile.toPath()));
+    assertEquals(1, coldCache.listFiles().length);
+
+    // refreshing accepts the new content
+    schema[0] = "type Query { changed: String }";
+    SchemaFileService refresh =
+        lockedService(tempDir.resolve("refresh"), lockFile, tempDir.resolve("cold-cache").toFile());
+    refresh.setRefreshRemoteSchemas(true);
+    refresh.loadSchemaUrls(List.of(url));
+    assertNotEquals(locked, Files.readString(lockFile.toPath()));
+  }
+
+  private SchemaFileService lockedService(Path outputDir, File lockFile, File cacheDir) {
+    SchemaFileService service =
+        new SchemaFileService(
+            outputDir.toFile(),
+            schemaManifestService,
+            remoteSchemaService,
+            schemaTransformationService);
+    service.useSchemaLock(lockFile, cacheDir);
+    return service;
+  }
+
+  @Test
+  @SneakyThrows
+  void testLoadSchemaUrls_fetchesConcurrently() {
+    String first = "http://example.com/first.graphqls";
+    String second = "http://example.com/second.graphqls";
+    CountDownLatch bothStarted = new CountDownLatch(2);
+    CountDownLatch secondDone = new CountDownLatch(1);
+    Map<String, File> files = new ConcurrentHashMap<>();
+    when(remoteSchemaService.downloadRemoteSchemaFile(anyString(), any(File.class)))
+        .thenAnswer(
+            invocation -> {
+              bothStarted.countDown();
+              assertTrue(bothStarted.await(10, TimeUnit.SECONDS), "Should fetch concurrently");
+              String url = invocation.getArgument(0);
+              if (url.equals(first)) {
+                // the second schema finishes first
+                assertTrue(secondDone.await(10, TimeUnit.SECONDS));
+              }
+              files.put(url, invocation.getArgument(1));
+              if (url.equals(second)) {
+                secondDone.countDown();
+              }
+              return invocation.getArgument(1);
+            });
+
+    schemaFileService.loadSchemaUrls(List.of(first, second));
+
+    assertEquals(
+        List.of(files.get(first), files.get(second)),
+        List.copyOf(schemaFileService.getSchemaPaths()),
+        "Should keep the input order");
+  }
+
+  @Test
+  @SneakyThrows
+  void testLoadSchemaUrls_failsOnFirstError() {
+    when(remoteSchemaService.downloadRemoteSchemaFile(anyString(), any(File.class)))
+        .thenAnswer(invocation -> invocation.getArgument(1));
+    when(remoteSchemaService.downloadRemoteSchemaFile(eq("http://example.com/bad"), any()))
+        .thenThrow(new java.io.IOException("Failed to get remote schema file: 500"));
+
+    java.io.IOException e =
+        assertThrows(
+            java.io.IOException.class,
+            () ->
+                schemaFileService.loadSchemaUrls(
+                    List.of("http://example.com/good", "http://example.com/bad")));
+    assertTrue(e.getMessage().contains("500"));
   }
 
   @Test
   void extractSchemaFilesFromDependencies_returnsMatchingArtifactFile() {
+
     org.apache.maven.artifact.Artifact artifact = mock(org.apache.maven.artifact.Artifact.class);
     when(artifact.getGroupId()).thenReturn("com.example");
     when(artifact.getArtifactId()).thenReturn("foo");
@@ -239,14 +564,21 @@ class SchemaFileServiceTest {
     String operationName = "IntrospectionQuery";
     Map<String, String> headers = java.util.Map.of("Authorization", "Bearer token");
     String expectedSDL = "type Query { hello: String }";
-    when(remoteSchemaService.getIntrospectedSchemaFile(
+    when(remoteSchemaService.downloadIntrospectedSchemaFile(
             eq(url),
             argThat(
                 op -> op.getQuery().equals(query) && op.getOperationName().equals(operationName)),
-            eq(headers)))
-        .thenReturn(expectedSDL);
-
-    when(schemaTransformationService.transformSchema(expectedSDL)).thenReturn(expectedSDL);
+            eq(headers),
+            any()))
+        .thenAnswer(
+            invocation -> {
+              File file = invocation.getArgument(3);
+              Files.createDirectories(file.getParentFile().toPath());
+              Files.writeString(file.toPath(), expectedSDL);
+              return file;
+            });
+
+    when(schemaTransformationService.transformSchemaFile(any())).thenReturn(expectedSDL);
 
     IntrospectionRequest request = new IntrospectionRequest();
     request.setUrl(url);
@@ -268,10 +600,11 @@ class SchemaFileServiceTest {
     String content = java.nio.file.Files.readString(outFile.toPath());
     assertEquals(expectedSDL, content);
     verify(remoteSchemaService, times(1))
-        .getIntrospectedSchemaFile(
+        .downloadIntrospectedSchemaFile(
             eq(url),
             argThat(
                 op -> op.getQuery().equals(query) && op.getOperationName().equals(operationName)),
-            eq(headers));
+            eq(headers),
+            any());
   }
 }
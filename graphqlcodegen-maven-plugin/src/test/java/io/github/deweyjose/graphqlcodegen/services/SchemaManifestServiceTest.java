@@ -1,17 +1,26 @@
 package io.github.deweyjose.graphqlcodegen.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -107,12 +116,273 @@ class SchemaManifestServiceTest {
     assertTrue(changed.contains(file));
   }
 
+  @SneakyThrows
+  @Test
+  void testManifestMigratesLegacyManifest() {
+    File bar = getFile("schema/bar.graphqls");
+    File foo = getFile("schema/foo.graphqls");
+
+    Properties properties = new Properties();
+    properties.put(
+        tempFolder.relativize(bar.toPath()).toString(), "7cada13b5b8770e46f7a69e8856abdb9");
+    properties.put(tempFolder.relativize(foo.toPath()).toString(), "stale");
+
+    File manifest = tempFolder.resolve("manifest.props").toFile();
+    try (FileOutputStream fis = new FileOutputStream(manifest)) {
+      properties.store(fis, "Schema Manifest");
+    }
+
+    SchemaManifestService sfm =
+        new SchemaManifestService(
+            new HashSet<>(Arrays.asList(foo, bar)), manifest, tempFolder.toFile());
+    assertEquals(Set.of(foo), sfm.getChangedFiles());
+
+    sfm.syncManifest();
+
+    Properties migrated = new Properties();
+    try (FileInputStream fis = new FileInputStream(manifest)) {
+      migrated.load(fis);
+    }
+    assertEquals(
+        String.valueOf(SchemaManifestService.MANIFEST_VERSION),
+        migrated.getProperty(SchemaManifestService.VERSION_KEY));
+    assertEquals("SHA-256", migrated.getProperty(SchemaManifestService.ALGORITHM_KEY));
+    assertEquals(
+        "ab6564f7bb8381a29baad36340a60eb1a373c65c34903c3c84debc8839493fad,"
+            + bar.length()
+            + ","
+            + bar.lastModified(),
+        migrated.getProperty(
+            SchemaManifestService.FILE_PREFIX + tempFolder.relativize(bar.toPath())));
+
+    sfm =
+        new SchemaManifestService(
+            new HashSet<>(Arrays.asList(foo, bar)), manifest, tempFolder.toFile());
+    assertTrue(sfm.getChangedFiles().isEmpty());
+  }
+
+  @SneakyThrows
+  @Test
+  void testManifestAlgorithmChangeDoesNotInvalidate() {
+    File bar = getFile("schema/bar.graphqls");
+    File foo = getFile("schema/foo.graphqls");
+    File manifest = tempFolder.resolve("manifest.props").toFile();
+
+    SchemaManifestService sfm =
+        new SchemaManifestService(
+            new HashSet<>(Arrays.asList(foo, bar)), manifest, tempFolder.toFile(), "SHA-1");
+    sfm.syncManifest();
+
+    sfm =
+        new SchemaManifestService(
+            new HashSet<>(Arrays.asList(foo, bar)), manifest, tempFolder.toFile(), "SHA-512");
+    assertTrue(sfm.getChangedFiles().isEmpty());
+  }
+
+  @SneakyThrows
+  @Test
+  void testManifestConfigChangeInvalidatesAllFiles() {
+    File bar = getFile("schema/bar.graphqls");
+    File foo = getFile("schema/foo.graphqls");
+    File manifest = tempFolder.resolve("manifest.props").toFile();
+    Set<File> files = new HashSet<>(Arrays.asList(foo, bar));
+
+    SchemaManifestService sfm = new SchemaManifestService(files, manifest, tempFolder.toFile());
+    sfm.setConfigFingerprint("one");
+    sfm.syncManifest();
+
+    sfm = new SchemaManifestService(files, manifest, tempFolder.toFile());
+    sfm.setConfigFingerprint("one");
+    assertTrue(sfm.getChangedFiles().isEmpty());
+
+    sfm = new SchemaManifestService(files, manifest, tempFolder.toFile());
+    sfm.setConfigFingerprint("two");
+    assertEquals(files, sfm.getChangedFiles());
+  }
+
+  @SneakyThrows
+  @Test
+  void testManifestRecordsTypes() {
+    File bar = getFile("schema/bar.graphqls");
+    File foo = getFile("schema/foo.graphqls");
+    File manifest = tempFolder.resolve("manifest.props").toFile();
+
+    SchemaManifestService sfm =
+        new SchemaManifestService(new HashSet<>(List.of(foo, bar)), manifest, tempFolder.toFile());
+    sfm.setConfigFingerprint("one");
+    sfm.setFileTypes(Map.of(foo, Set.of("Foo", "Query"), bar, Set.of("Bar")));
+    sfm.setTypeHashes(Map.of("Foo", "f", "Bar", "b", "Query", "q"));
+    sfm.syncManifest();
+
+    // bar.graphqls is no longer tracked
+    sfm = new SchemaManifestService(new HashSet<>(List.of(foo)), manifest, tempFolder.toFile());
+    sfm.setConfigFingerprint("one");
+    assertTrue(sfm.getChangedFiles().isEmpty());
+    assertEquals(Set.of("Foo", "Query"), sfm.getRecordedTypes(foo));
+    assertEquals(Set.of("Bar"), sfm.getRemovedFileTypes());
+    assertEquals("f", sfm.getRecordedTypeHash("Foo"));
+
+    sfm = new SchemaManifestService(new HashSet<>(List.of(foo)), manifest, tempFolder.toFile());
+    sfm.setConfigFingerprint("two");
+    sfm.getChangedFiles();
+    assertNull(sfm.getRecordedTypeHash("Foo"));
+  }
+
+  @SneakyThrows
+  @Test
+  void testManifestTracksSchemaJars() {
+    File foo = getFile("schema/foo.graphqls");
+    File manifest = tempFolder.resolve("manifest.props").toFile();
+    File jar = tempFolder.resolve("schema.jar").toFile();
+    Map<String, File> jars = Map.of("com.example:schema:1.0.0", jar);
+    writeJar(jar, "type Query { foo: String }");
+
+    SchemaManifestService sfm =
+        new SchemaManifestService(new HashSet<>(List.of(foo)), manifest, tempFolder.toFile());
+    sfm.setJars(jars);
+    assertEquals(Set.of(foo), sfm.getChangedFiles());
+    assertTrue(sfm.hasChangedJars());
+    sfm.syncManifest();
+
+    sfm = new SchemaManifestService(new HashSet<>(List.of(foo)), manifest, tempFolder.toFile());
+    sfm.setJars(jars);
+    assertTrue(sfm.getChangedFiles().isEmpty());
+    assertFalse(sfm.hasChangedJars());
+
+    // a rebuilt jar with the same schema is unchanged
+    writeJar(jar, "type Query { foo: String }");
+    assertTrue(jar.setLastModified(jar.lastModified() - 10_000));
+    sfm = new SchemaManifestService(new HashSet<>(List.of(foo)), manifest, tempFolder.toFile());
+    sfm.setJars(jars);
+    assertTrue(sfm.getChangedFiles().isEmpty());
+    assertFalse(sfm.hasChangedJars());
+
+    // a changed schema entry marks every file as changed
+    writeJar(jar, "type Query { foo: String bar: Int }");
+    sfm = new SchemaManifestService(new HashSet<>(List.of(foo)), manifest, tempFolder.toFile());
+    sfm.setJars(jars);
+    assertEquals(Set.of(foo), sfm.getChangedFiles());
+    assertTrue(sfm.hasChangedJars());
+    assertNull(sfm.getRecordedTypeHash("Query"));
+
+    // a removed jar is a change too
+    sfm = new SchemaManifestService(new HashSet<>(List.of(foo)), manifest, tempFolder.toFile());
+    sfm.getChangedFiles();
+    assertTrue(sfm.hasChangedJars());
+  }
+
+  @Test
+  void testManifestRecordsOutputs() {
+    File foo = getFile("schema/foo.graphqls");
+    File manifest = tempFolder.resolve("manifest.props").toFile();
+    File fooType = tempFolder.resolve("generated/com/example/types/Foo.java").toFile();
+    File constants = tempFolder.resolve("generated/com/example/DgsConstants.java").toFile();
+
+    SchemaManifestService sfm =
+        new SchemaManifestService(new HashSet<>(List.of(foo)), manifest, tempFolder.toFile());
+    sfm.setOutputs(Map.of(fooType, "Foo", constants, ""));
+    sfm.syncManifest();
+
+    sfm = new SchemaManifestService(new HashSet<>(List.of(foo)), manifest, tempFolder.toFile());
+    sfm.getChangedFiles();
+    assertEquals(Map.of(fooType, "Foo", constants, ""), sfm.getRecordedOutputs());
+
+    // outputs are kept when the next sync does not set them
+    sfm.syncManifest();
+    sfm = new SchemaManifestService(new HashSet<>(List.of(foo)), manifest, tempFolder.toFile());
+    sfm.getChangedFiles();
+    assertEquals(Map.of(fooType, "Foo", constants, ""), sfm.getRecordedOutputs());
+  }
+
+  @SneakyThrows
+  @Test
+  void testManifestTrustsMatchingStatData(@TempDir Path tempDir) {
+
+    File file = tempDir.resolve("test.graphqls").toFile();
+    Files.writeString(file.toPath(), "type Query { foo: String }");
+    File manifest = tempDir.resolve("manifest.props").toFile();
+
+    new SchemaManifestService(new HashSet<>(List.of(file)), manifest, tempDir.toFile())
+        .syncManifest();
+
+    // corrupt the recorded checksum but keep size and mtime: the file must not be re-read
+    Properties properties = new Properties();
+    try (FileInputStream fis = new FileInputStream(manifest)) {
+      properties.load(fis);
+    }
+    String key = SchemaManifestService.FILE_PREFIX + "test.graphqls";
+    properties.setProperty(key, properties.getProperty(key).replaceFirst("^[0-9a-f]+", "bogus"));
+    try (FileOutputStream fos = new FileOutputStream(manifest)) {
+      properties.store(fos, "Schema Manifest");
+    }
+
+    SchemaManifestService sfm =
+        new SchemaManifestService(new HashSet<>(List.of(file)), manifest, tempDir.toFile());
+    assertTrue(sfm.getChangedFiles().isEmpty());
+  }
+
+  @SneakyThrows
+  @Test
+  void testManifestRehashesTouchedFile(@TempDir Path tempDir) {
+    File file = tempDir.resolve("test.graphqls").toFile();
+    Files.writeString(file.toPath(), "type Query { foo: String }");
+    File manifest = tempDir.resolve("manifest.props").toFile();
+
+    new SchemaManifestService(new HashSet<>(List.of(file)), manifest, tempDir.toFile())
+        .syncManifest();
+
+    // same content, new mtime: rehashed and found unchanged
+    assertTrue(file.setLastModified(file.lastModified() - 10_000));
+    SchemaManifestService sfm =
+        new SchemaManifestService(new HashSet<>(List.of(file)), manifest, tempDir.toFile());
+    assertTrue(sfm.getChangedFiles().isEmpty());
+    sfm.syncManifest();
+
+    Properties properties = new Properties();
+    try (FileInputStream fis = new FileInputStream(manifest)) {
+      properties.load(fis);
+    }
+    assertTrue(
+        properties
+            .getProperty(SchemaManifestService.FILE_PREFIX + "test.graphqls")
+            .endsWith("," + file.lastModified()));
+  }
+
+  @Test
+  void testUnsupportedAlgorithm() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new SchemaManifestService(tempFolder.toFile(), tempFolder.toFile(), "NOPE-1"));
+  }
+
   @ParameterizedTest
   @MethodSource("checksumProvider")
   void testChecksum(File file, String checksum) {
     assertEquals(checksum, SchemaManifestService.generateChecksum(file));
   }
 
+  @Test
+  void testChecksumWithAlgorithm() {
+    assertEquals(
+        "cb9282985ca718a2e346d5488dda2e42bf8d78c9b954ed65d0958a6cd6e89f95",
+        SchemaManifestService.generateChecksum(getFile("schema/foo.graphqls"), "SHA-256"));
+    assertEquals(
+        "61bbd2d58c22dfb3c664829ad116f7e9",
+        SchemaManifestService.generateChecksum(getFile("schema/foo.graphqls"), "MD5"));
+  }
+
+  @SneakyThrows
+  private static void writeJar(File jar, String schema) {
+    try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(jar))) {
+      zip.putNextEntry(new ZipEntry("META-INF/schema/schema.graphqls"));
+      zip.write(schema.getBytes(StandardCharsets.UTF_8));
+      zip.closeEntry();
+      zip.putNextEntry(new ZipEntry("com/example/Foo.class"));
+      zip.write(new byte[] {1, 2, 3});
+      zip.closeEntry();
+    }
+  }
+
   private static File getFile(String path) {
     return new File(SchemaManifestServiceTest.class.getClassLoader().getResource(path).getFile());
   }
@@ -134,6 +134,61 @@ class SchemaTransformationServiceTest {
     assertEquals(schema, transformed);
   }
 
+  @Test
+  void shouldReturnSchemaWithStandardRootTypesUnchanged() {
+    // Given
+    String schema =
+        """
+            schema {
+                query: Query
+                mutation: Mutation
+            }
+
+            type Query {
+                hello: String
+            }
+
+            type Mutation {
+                updateHello(message: String): String
+            }
+            """;
+
+    // When
+    String transformed = service.transformSchema(schema);
+
+    // Then
+    assertSame(schema, transformed);
+  }
+
+  @Test
+  void shouldRenameReferencesToCustomRootTypes() {
+    // Given
+    String schema =
+        """
+            schema {
+                query: CustomQuery
+            }
+
+            type CustomQuery {
+                hello: String
+                viewer: CustomQuery
+            }
+
+            type Viewer {
+                root: CustomQuery!
+            }
+            """;
+
+    // When
+    String transformed = service.transformSchema(schema);
+
+    // Then
+    assertTrue(transformed.contains("type Query {"));
+    assertTrue(transformed.contains("viewer: Query"));
+    assertTrue(transformed.contains("root: Query!"));
+    assertFalse(transformed.contains("CustomQuery"));
+  }
+
   @Test
   void shouldTransformSchemaFile(@TempDir Path tempDir) throws IOException {
     // Given
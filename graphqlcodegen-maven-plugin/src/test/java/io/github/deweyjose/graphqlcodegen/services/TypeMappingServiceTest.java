@@ -3,6 +3,8 @@ package io.github.deweyjose.graphqlcodegen.services;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import io.github.deweyjose.graphqlcodegen.Logger;
+import io.github.deweyjose.graphqlcodegen.Slf4jLogger;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -11,6 +13,7 @@ import java.nio.file.Path;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -23,6 +26,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 class TypeMappingServiceTest {
+  private static final Logger LOGGER = new Slf4jLogger();
+
   private File tempJar;
 
   @TempDir static Path classTempDir;
@@ -49,7 +54,7 @@ class TypeMappingServiceTest {
 
   @Test
   void loadPropertiesFile_readsPropertiesFromJar() {
-    TypeMappingService service = new TypeMappingService();
+    TypeMappingService service = new TypeMappingService(LOGGER);
     Map<String, String> result =
         service.loadPropertiesFile(tempJar, List.of("type-mapping.properties"));
     assertEquals(2, result.size());
@@ -59,7 +64,7 @@ class TypeMappingServiceTest {
 
   @Test
   void loadPropertiesFile_returnsEmptyMapIfNoFile() {
-    TypeMappingService service = new TypeMappingService();
+    TypeMappingService service = new TypeMappingService(LOGGER);
     Map<String, String> result =
         service.loadPropertiesFile(tempJar, List.of("does-not-exist.properties"));
     assertTrue(result.isEmpty());
@@ -67,7 +72,7 @@ class TypeMappingServiceTest {
 
   @Test
   void mergeTypeMapping_returnsEmptyIfNoInput() {
-    TypeMappingService service = new TypeMappingService();
+    TypeMappingService service = new TypeMappingService(LOGGER);
     Map<String, String> result =
         service.mergeTypeMapping(null, null, null, Collections.emptySet(), new File("."));
     assertTrue(result.isEmpty());
@@ -75,7 +80,7 @@ class TypeMappingServiceTest {
 
   @Test
   void loadLocalPropertiesFiles_readsPropertiesFromLocalFile() throws IOException {
-    TypeMappingService service = new TypeMappingService();
+    TypeMappingService service = new TypeMappingService(LOGGER);
     File tempDir = Files.createTempDirectory("test").toFile();
     File propertiesFile = new File(tempDir, "local-type-mapping.properties");
     try (FileOutputStream fos = new FileOutputStream(propertiesFile)) {
@@ -95,7 +100,7 @@ class TypeMappingServiceTest {
 
   @Test
   void mergeTypeMapping_includesLocalTypeMappings() throws IOException {
-    TypeMappingService service = new TypeMappingService();
+    TypeMappingService service = new TypeMappingService(LOGGER);
     File tempDir = Files.createTempDirectory("test").toFile();
     File propertiesFile = new File(tempDir, "local-type-mapping.properties");
     try (FileOutputStream fos = new FileOutputStream(propertiesFile)) {
@@ -125,7 +130,7 @@ class TypeMappingServiceTest {
 
   @Test
   void mergeTypeMapping_mergesJarAndUserTypeMapping() {
-    TypeMappingService service = new TypeMappingService();
+    TypeMappingService service = new TypeMappingService(LOGGER);
     Artifact artifact = mock(Artifact.class);
     when(artifact.getFile()).thenReturn(tempJar);
     Set<Artifact> artifacts = new HashSet<>();
@@ -148,7 +153,7 @@ class TypeMappingServiceTest {
 
   @Test
   void mergeTypeMapping_returnsUserMapIfNoArtifacts() {
-    TypeMappingService service = new TypeMappingService();
+    TypeMappingService service = new TypeMappingService(LOGGER);
     Map<String, String> userMap = new HashMap<>();
     userMap.put("foo", "bar");
     Map<String, String> result =
@@ -161,4 +166,89 @@ class TypeMappingServiceTest {
     assertEquals(1, result.size());
     assertEquals("bar", result.get("foo"));
   }
+
+  @Test
+  void mergeTypeMapping_indexSkipsUnchangedJars(@TempDir Path indexDir) throws IOException {
+    TypeMappingService service = new TypeMappingService(indexDir.toFile(), LOGGER);
+    Artifact artifact = mock(Artifact.class);
+    when(artifact.getFile()).thenReturn(tempJar);
+    Set<Artifact> artifacts = Set.of(artifact);
+    List<String> files = List.of("type-mapping.properties");
+
+    Map<String, String> first =
+        service.mergeTypeMapping(null, files, null, artifacts, new File("."));
+    assertEquals(Map.of("foo", "bar", "hello", "world"), first);
+    assertTrue(indexDir.resolve(TypeMappingIndex.INDEX_FILE).toFile().isFile());
+
+    // corrupt the jar without changing its size or last-modified time: it is not reopened
+    long lastModified = tempJar.lastModified();
+    Files.write(tempJar.toPath(), new byte[(int) tempJar.length()]);
+    tempJar.setLastModified(lastModified);
+    TypeMappingService.JAR_TYPE_MAPPINGS.clear();
+    assertEquals(
+        first,
+        new TypeMappingService(indexDir.toFile(), LOGGER)
+            .mergeTypeMapping(null, files, null, artifacts, new File(".")));
+
+    // a changed jar is read again
+    tempJar.setLastModified(lastModified + 1000);
+    assertTrue(
+        new TypeMappingService(indexDir.toFile(), LOGGER)
+            .mergeTypeMapping(null, files, null, artifacts, new File("."))
+            .isEmpty());
+  }
+
+  @Test
+  void mergeTypeMapping_unreadableJarIsWarnedAndNotIndexed(@TempDir Path indexDir)
+      throws IOException {
+    Logger logger = mock(Logger.class);
+    Artifact artifact = mock(Artifact.class);
+    when(artifact.getFile()).thenReturn(tempJar);
+    Set<Artifact> artifacts = Set.of(artifact);
+    List<String> files = List.of("type-mapping.properties");
+    byte[] jar = Files.readAllBytes(tempJar.toPath());
+    long lastModified = tempJar.lastModified();
+
+    // an unreadable jar contributes no mappings and is reported
+    Files.write(tempJar.toPath(), new byte[jar.length]);
+    tempJar.setLastModified(lastModified);
+    assertTrue(
+        new TypeMappingService(indexDir.toFile(), logger)
+            .mergeTypeMapping(null, files, null, artifacts, new File("."))
+            .isEmpty());
+    verify(logger).warn(startsWith("ignoring the type mappings of"), any(), any());
+
+    // once readable again with the same size and last-modified time, it is read, not skipped
+    Files.write(tempJar.toPath(), jar);
+    tempJar.setLastModified(lastModified);
+    assertEquals(
+        Map.of("foo", "bar", "hello", "world"),
+        new TypeMappingService(indexDir.toFile(), logger)
+            .mergeTypeMapping(null, files, null, artifacts, new File(".")));
+  }
+
+  @Test
+  void mergeTypeMapping_laterJarsWinWhenScannedConcurrently() throws IOException {
+    Set<Artifact> artifacts = new LinkedHashSet<>();
+    for (int i = 0; i < 20; i++) {
+      File jar = classTempDir.resolve("mapping-" + i + ".jar").toFile();
+      try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(jar))) {
+        jos.putNextEntry(new JarEntry("type-mapping.properties"));
+        jos.write(("shared=jar" + i + "\nkey" + i + "=value" + i + "\n").getBytes());
+        jos.closeEntry();
+      }
+      Artifact artifact = mock(Artifact.class);
+      when(artifact.getFile()).thenReturn(jar);
+      artifacts.add(artifact);
+    }
+
+    Map<String, String> result =
+        new TypeMappingService(LOGGER)
+            .mergeTypeMapping(
+                null, List.of("type-mapping.properties"), null, artifacts, new File("."));
+
+    assertEquals(21, result.size());
+    assertEquals("jar19", result.get("shared"));
+    assertEquals("value7", result.get("key7"));
+  }
 }